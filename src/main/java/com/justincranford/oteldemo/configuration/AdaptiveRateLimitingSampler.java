@@ -0,0 +1,171 @@
+package com.justincranford.oteldemo.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Head sampler that targets tracesPerSecond sampled traces per route, instead of a fixed probability.
+ * Each route's probability is re-tuned every interval from its observed request rate (exponentially weighted), so sampled volume stays flat
+ * from night to peak; the first trace of each route in every interval is always sampled, so rare routes are never invisible.
+ * Child spans follow their parent's decision (like Sampler.parentBased). Routes come from the servlet request path (see RouteFilter),
+ * because http.route is only known after the span started; other root spans (e.g. scheduled tasks) use the span name.
+ * A path only becomes a route after a request to it was dispatched to a handler mapped to that exact path (see learnRoute), so 404 scans,
+ * path variables and ;jsessionid suffixes share the "other" budget instead of using up maxRoutes.
+ */
+public class AdaptiveRateLimitingSampler implements Sampler, MeterBinder {
+    static final String OTHER_ROUTE = "other";
+    private static final ThreadLocal<String> CURRENT_ROUTE = new ThreadLocal<>();
+    private static final double EWMA_WEIGHT = 0.5; // weight of the latest interval's rate
+
+    private final double tracesPerSecond;
+    private final long intervalNanos;
+    private final int maxRoutes;
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+    private final Set<String> knownRoutes = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry meterRegistry;
+
+    private final class RouteState {
+        private final LongAdder seen = new LongAdder();
+        private final AtomicLong sampledThisInterval = new AtomicLong(0L);
+        private final AtomicLong intervalStartNanos = new AtomicLong(System.nanoTime());
+        private volatile double ratePerSecond = -1D; // unknown until the first interval ends
+        private volatile double probability = 1D;
+        private volatile Counter sampledCounter;
+
+        private boolean shouldSample() {
+            retuneIfIntervalEnded();
+            this.seen.increment();
+            final boolean sampled = (this.sampledThisInterval.get() == 0L) || (ThreadLocalRandom.current().nextDouble() < this.probability);
+            if (sampled) {
+                this.sampledThisInterval.incrementAndGet();
+                if (this.sampledCounter != null) {
+                    this.sampledCounter.increment();
+                }
+            }
+            return sampled;
+        }
+
+        // Lazy, on the sampling path, so there is no background thread; CAS lets only one caller per interval re-tune
+        private void retuneIfIntervalEnded() {
+            final long startNanos = this.intervalStartNanos.get();
+            final long nowNanos = System.nanoTime();
+            final long elapsedNanos = nowNanos - startNanos;
+            if ((elapsedNanos < intervalNanos) || !this.intervalStartNanos.compareAndSet(startNanos, nowNanos)) {
+                return;
+            }
+            final double intervalRate = this.seen.sumThenReset() * 1_000_000_000D / elapsedNanos;
+            this.ratePerSecond = (this.ratePerSecond < 0D) ? intervalRate : (EWMA_WEIGHT * intervalRate) + ((1D - EWMA_WEIGHT) * this.ratePerSecond);
+            this.probability = (this.ratePerSecond <= tracesPerSecond) ? 1D : tracesPerSecond / this.ratePerSecond;
+            this.sampledThisInterval.set(0L);
+        }
+    }
+
+    public AdaptiveRateLimitingSampler(final TracingConfigurationProperties.AdaptiveSampling adaptiveSampling) {
+        this.tracesPerSecond = adaptiveSampling.getTracesPerSecond();
+        this.intervalNanos = adaptiveSampling.getInterval().toNanos();
+        this.maxRoutes = adaptiveSampling.getMaxRoutes();
+    }
+
+    // Called by RouteFilter around each servlet request
+    static void setCurrentRoute(final String route) {
+        CURRENT_ROUTE.set(route);
+    }
+
+    static void clearCurrentRoute() {
+        CURRENT_ROUTE.remove();
+    }
+
+    // Bounded cardinality: e.g. /actuator/prometheus -> /actuator/*, /temperatures/;jsessionid=x -> /temperatures
+    static String normalizeRoute(final String path) {
+        final int semicolon = path.indexOf(';');
+        String route = (semicolon < 0) ? path : path.substring(0, semicolon);
+        if ((route.length() > 1) && route.endsWith("/")) {
+            route = route.substring(0, route.length() - 1);
+        }
+        return route.startsWith("/actuator/") ? "/actuator/*" : route;
+    }
+
+    // Called by RouteFilter before dispatch; unknown paths (including the first request to each route) are sampled as "other"
+    String currentRoute(final String path) {
+        final String route = normalizeRoute(path);
+        return this.knownRoutes.contains(route) ? route : OTHER_ROUTE;
+    }
+
+    // Called by RouteFilter after dispatch with HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE; catch-all (/**) and path variable
+    // patterns never equal the request path, so they are not learned
+    void learnRoute(final String path, final String bestMatchingPattern) {
+        final String route = normalizeRoute(path);
+        if ((bestMatchingPattern != null) && route.equals(normalizeRoute(bestMatchingPattern)) && (this.knownRoutes.size() < this.maxRoutes)) {
+            this.knownRoutes.add(route);
+        }
+    }
+
+    @Override
+    public SamplingResult shouldSample(
+        final Context parentContext,
+        final String traceId,
+        final String name,
+        final SpanKind spanKind,
+        final Attributes attributes,
+        final List<LinkData> parentLinks
+    ) {
+        final SpanContext parentSpanContext = Span.fromContext(parentContext).getSpanContext();
+        if (parentSpanContext.isValid()) {
+            return parentSpanContext.isSampled() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+        }
+        final String currentRoute = CURRENT_ROUTE.get();
+        return routeState((currentRoute == null) ? name : currentRoute).shouldSample() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+    }
+
+    @Override
+    public String getDescription() {
+        return "AdaptiveRateLimitingSampler{tracesPerSecond=" + this.tracesPerSecond + ", intervalNanos=" + this.intervalNanos + "}";
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.routes.forEach(this::registerMeters); // routes seen before the registry was bound
+    }
+
+    private RouteState routeState(final String route) {
+        final RouteState existing = this.routes.get(route);
+        if (existing != null) {
+            return existing;
+        }
+        final String boundedRoute = (this.routes.size() < this.maxRoutes) ? route : OTHER_ROUTE;
+        return this.routes.computeIfAbsent(boundedRoute, key -> {
+            final RouteState routeState = new RouteState();
+            registerMeters(key, routeState);
+            return routeState;
+        });
+    }
+
+    private void registerMeters(final String route, final RouteState routeState) {
+        final MeterRegistry registry = this.meterRegistry;
+        if ((registry == null) || (routeState.sampledCounter != null)) {
+            return;
+        }
+        Gauge.builder("otel.adaptive_sampling.probability", routeState, state -> state.probability).description("Current head sampling probability").tags("route", route).register(registry);
+        Gauge.builder("otel.adaptive_sampling.rate", routeState, state -> Math.max(0D, state.ratePerSecond)).description("Observed root spans per second").baseUnit("spans/s").tags("route", route).register(registry);
+        routeState.sampledCounter = Counter.builder("otel.adaptive_sampling.sampled").description("Root spans sampled").tags("route", route).register(registry);
+    }
+}
@@ -0,0 +1,259 @@
+package com.justincranford.oteldemo.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.Clock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregated JDBC telemetry: per SQL shape (see {@link SqlShape}) latency histograms, row counts, and error counts, instead of one span per statement.
+ * Statements that are slower than slowThreshold, or that fail, still get a span (child of the current span) with the sanitized SQL.
+ * Query parameters are never captured. Metrics:
+ * db.client.operation.duration{db.operation.name, db.collection.name, db.query.fingerprint, outcome},
+ * db.client.operation.rows{..., kind=affected|returned}, db.client.transaction.duration{db.operation.name=commit|rollback, outcome}.
+ */
+@Slf4j
+public class AggregatingJdbcDataSource extends DelegatingDataSource {
+    private static final Duration[] SLOS = {
+        Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5)
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final Cache<String, ShapeMeters> metersBySql = Caffeine.newBuilder().maximumSize(10_000).build(); // raw SQL -> shape; JdbcTemplate and Hibernate SQL strings are mostly constants
+    private final Map<String, ShapeMeters> metersByFingerprint = new ConcurrentHashMap<>();
+    private final ShapeMeters otherMeters;
+    private final Map<String, Timer> transactionTimers = new ConcurrentHashMap<>();
+
+    private final class ShapeMeters {
+        private final SqlShape shape;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary affectedRows;
+        private final DistributionSummary returnedRows;
+
+        private ShapeMeters(final SqlShape shape) {
+            this.shape = shape;
+            this.success = timer(shape, "success");
+            this.error = timer(shape, "error");
+            this.affectedRows = rows(shape, "affected");
+            this.returnedRows = rows(shape, "returned");
+        }
+
+        private Timer timer(final SqlShape shape, final String outcome) {
+            return Timer.builder("db.client.operation.duration").description("JDBC statement execution time per SQL shape").serviceLevelObjectives(SLOS)
+                .tags("db.operation.name", shape.operation(), "db.collection.name", shape.table(), "db.query.fingerprint", shape.fingerprint(), "outcome", outcome)
+                .register(meterRegistry);
+        }
+
+        private DistributionSummary rows(final SqlShape shape, final String kind) {
+            return DistributionSummary.builder("db.client.operation.rows").description("JDBC rows per statement per SQL shape").baseUnit("rows")
+                .tags("db.operation.name", shape.operation(), "db.collection.name", shape.table(), "db.query.fingerprint", shape.fingerprint(), "kind", kind)
+                .register(meterRegistry);
+        }
+    }
+
+    public AggregatingJdbcDataSource(final DataSource targetDataSource, final OpenTelemetry openTelemetry, final MeterRegistry meterRegistry, final JdbcConfigurationProperties jdbcConfigurationProperties) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+        this.tracer = openTelemetry.getTracer(AggregatingJdbcDataSource.class.getName());
+        this.slowThresholdNanos = jdbcConfigurationProperties.getSlowThreshold().toNanos();
+        this.maxShapes = jdbcConfigurationProperties.getMaxShapes();
+        this.otherMeters = new ShapeMeters(SqlShape.OTHER);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    // unwrap is delegated, e.g. to PGConnection for COPY, which then bypasses this aggregation
+    private Connection wrapConnection(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            final String name = method.getName();
+            if ((args == null) && (name.equals("commit") || name.equals("rollback"))) {
+                return timeTransaction(connection, method, name);
+            }
+            final Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement callableStatement) {
+                return wrapStatement(callableStatement, CallableStatement.class, (String) args[0]);
+            } else if (result instanceof PreparedStatement preparedStatement) {
+                return wrapStatement(preparedStatement, PreparedStatement.class, (String) args[0]);
+            } else if (result instanceof Statement statement) {
+                return wrapStatement(statement, Statement.class, null);
+            }
+            return result;
+        });
+    }
+
+    private Object timeTransaction(final Connection connection, final Method method, final String operation) throws Throwable {
+        final long startNanos = System.nanoTime();
+        String outcome = "error";
+        try {
+            final Object result = invoke(connection, method, null);
+            outcome = "success";
+            return result;
+        } finally {
+            final long durationNanos = System.nanoTime() - startNanos;
+            this.transactionTimers.computeIfAbsent(operation + "/" + outcome, key -> Timer.builder("db.client.transaction.duration").description("JDBC commit and rollback time")
+                .serviceLevelObjectives(SLOS).tags("db.operation.name", operation).tag("outcome", key.substring(key.indexOf('/') + 1)).register(this.meterRegistry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // preparedSql is null for plain Statements, whose SQL is an argument of each execute call (or of addBatch)
+    private <T extends Statement> T wrapStatement(final T statement, final Class<T> statementInterface, final String preparedSql) {
+        final String[] batchSql = {null};
+        return statementInterface.cast(Proxy.newProxyInstance(statementInterface.getClassLoader(), new Class<?>[] {statementInterface}, (proxy, method, args) -> {
+            final String name = method.getName();
+            if (name.equals("addBatch") && (args != null) && (args[0] instanceof String sql) && (batchSql[0] == null)) {
+                batchSql[0] = sql; // first statement represents a plain Statement batch
+            } else if (name.startsWith("execute")) {
+                final String sql = ((args != null) && (args.length > 0) && (args[0] instanceof String executeSql)) ? executeSql : (preparedSql != null) ? preparedSql : batchSql[0];
+                if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                    batchSql[0] = null;
+                }
+                if (sql != null) {
+                    return execute(statement, method, args, sql);
+                }
+            }
+            return invoke(statement, method, args);
+        }));
+    }
+
+    private Object execute(final Statement statement, final Method method, final Object[] args, final String sql) throws Throwable {
+        final ShapeMeters meters = meters(sql);
+        final long startNanos = System.nanoTime();
+        final Object result;
+        try {
+            result = invoke(statement, method, args);
+        } catch (Throwable t) {
+            final long durationNanos = System.nanoTime() - startNanos;
+            meters.error.record(durationNanos, TimeUnit.NANOSECONDS);
+            emitSpan(meters.shape, durationNanos, t);
+            throw t;
+        }
+        final long durationNanos = System.nanoTime() - startNanos;
+        meters.success.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (durationNanos >= this.slowThresholdNanos) {
+            emitSpan(meters.shape, durationNanos, null);
+        }
+        if (result instanceof Integer rows) {
+            meters.affectedRows.record(rows);
+        } else if (result instanceof Long rows) {
+            meters.affectedRows.record(rows);
+        } else if (result instanceof int[] batchRows) {
+            meters.affectedRows.record(sumKnown(batchRows));
+        } else if (result instanceof long[] batchRows) {
+            meters.affectedRows.record(sumKnown(batchRows));
+        } else if (result instanceof ResultSet resultSet) {
+            return wrapResultSet(resultSet, meters);
+        } // else execute() returns boolean; row count is unknown until getUpdateCount or getResultSet
+        return result;
+    }
+
+    // Returned rows are counted while the caller iterates, and recorded on close
+    private ResultSet wrapResultSet(final ResultSet resultSet, final ShapeMeters meters) {
+        final long[] rows = {0L};
+        final boolean[] closed = {false};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+            final Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if (method.getName().equals("close") && !closed[0]) {
+                closed[0] = true;
+                meters.returnedRows.record(rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private void emitSpan(final SqlShape shape, final long durationNanos, final Throwable failure) {
+        final long endEpochNanos = Clock.getDefault().now();
+        final Span span = this.tracer.spanBuilder(shape.operation() + " " + shape.table())
+            .setSpanKind(SpanKind.CLIENT)
+            .setStartTimestamp(endEpochNanos - durationNanos, TimeUnit.NANOSECONDS)
+            .setAttribute("db.query.text", shape.sanitized())
+            .setAttribute("db.query.fingerprint", shape.fingerprint())
+            .setAttribute("db.operation.name", shape.operation())
+            .setAttribute("db.collection.name", shape.table())
+            .startSpan();
+        if (failure != null) {
+            span.recordException(failure);
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end(endEpochNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private ShapeMeters meters(final String sql) {
+        return this.metersBySql.get(sql, key -> {
+            final SqlShape shape = SqlShape.of(key);
+            final ShapeMeters existing = this.metersByFingerprint.get(shape.fingerprint());
+            if (existing != null) {
+                return existing;
+            }
+            if (this.metersByFingerprint.size() >= this.maxShapes) {
+                return this.otherMeters;
+            }
+            return this.metersByFingerprint.computeIfAbsent(shape.fingerprint(), fingerprint -> {
+                log.info("SQL shape {}: {}", fingerprint, shape.sanitized()); // once per shape, to look up fingerprint tags
+                return new ShapeMeters(shape);
+            });
+        });
+    }
+
+    private static long sumKnown(final int[] batchRows) {
+        long sum = 0L;
+        for (final int rows : batchRows) {
+            sum += Math.max(0, rows); // Statement.SUCCESS_NO_INFO is negative
+        }
+        return sum;
+    }
+
+    private static long sumKnown(final long[] batchRows) {
+        long sum = 0L;
+        for (final long rows : batchRows) {
+            sum += Math.max(0L, rows);
+        }
+        return sum;
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
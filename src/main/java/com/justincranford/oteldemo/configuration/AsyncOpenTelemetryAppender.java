@@ -0,0 +1,265 @@
+package com.justincranford.oteldemo.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.instrumentation.logback.appender.v1_0.OpenTelemetryAppender;
+import org.slf4j.MDC;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves OpenTelemetry log export off the logging thread: the caller only copies allowlisted MDC keys and its thread name, and enqueues; a worker thread hands events
+ * in batches to the attached appenders (i.e. OpenTelemetryAppender), with the caller's trace context current. The queue is lock-free and bounded.
+ * When it fills, levels are dropped in order, never blocking: TRACE/DEBUG/INFO above infoFillLimit percent, WARN above warnFillLimit percent, ERROR when full.
+ * The attached OpenTelemetryAppender must not capture experimental attributes (it would read the worker's thread); thread.name is added as a key value pair instead.
+ * Configured in logback-spring.xml; metrics are bound by OpenTelemetryLogsConfiguration.
+ */
+public class AsyncOpenTelemetryAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+    public static final String THREAD_NAME_KEY = "thread.name"; // OpenTelemetry semantic convention
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final Queue<QueuedEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0); // ConcurrentLinkedQueue.size() is O(n)
+    private final AtomicLong exported = new AtomicLong(0L);
+    private final Map<Level, AtomicLong> dropped = Map.of(Level.TRACE, new AtomicLong(), Level.DEBUG, new AtomicLong(), Level.INFO, new AtomicLong(), Level.WARN, new AtomicLong(), Level.ERROR, new AtomicLong());
+
+    // Logback XML properties
+    private int capacity = 8192;
+    private int batchSize = 256;
+    private int infoFillLimit = 75;
+    private int warnFillLimit = 90;
+    private long flushIntervalMillis = 100L;
+    private long shutdownTimeoutMillis = 5000L;
+    private String mdcKeys = ""; // comma separated allowlist; * copies every key
+
+    private List<String> mdcKeyList = List.of();
+    private boolean allMdcKeys = false;
+    private int infoLimit;
+    private int warnLimit;
+    private Thread worker;
+    private volatile boolean running = false;
+    private volatile boolean workerParked = false;
+
+    private record QueuedEvent(ILoggingEvent event, Context context) {
+    }
+
+    @Override
+    public void start() {
+        if (!this.appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender-ref attached to " + getName());
+            return;
+        }
+        this.infoLimit = (int) ((long) this.capacity * this.infoFillLimit / 100);
+        this.warnLimit = (int) ((long) this.capacity * this.warnFillLimit / 100);
+        this.allMdcKeys = "*".equals(this.mdcKeys.trim());
+        this.mdcKeyList = this.allMdcKeys ? List.of() : Arrays.stream(this.mdcKeys.split(",")).map(String::trim).filter(key -> !key.isEmpty()).toList();
+        this.running = true;
+        this.worker = new Thread(this::exportLoop, "otel-log-export-" + getName());
+        this.worker.setDaemon(true);
+        this.worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop(); // stop accepting events
+        this.running = false;
+        LockSupport.unpark(this.worker);
+        try {
+            this.worker.join(this.shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        }
+        if (this.worker.isAlive()) {
+            addWarn(this.size.get() + " log events not exported within " + this.shutdownTimeoutMillis + "ms");
+        }
+        this.appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        if (!reserve(event.getLevel())) {
+            this.dropped.get(event.getLevel()).incrementAndGet();
+            return;
+        }
+        if (event instanceof LoggingEvent loggingEvent) {
+            loggingEvent.addKeyValuePair(new KeyValuePair(THREAD_NAME_KEY, loggingEvent.getThreadName())); // earlier appenders (e.g. console) have already run
+            if (!this.allMdcKeys) {
+                try {
+                    loggingEvent.setMDCPropertyMap(allowlistedMdc()); // before prepareForDeferredProcessing, so it doesn't copy every key
+                } catch (IllegalStateException e) {
+                    // an earlier appender already captured the full MDC; keep it
+                }
+            }
+        }
+        event.prepareForDeferredProcessing(); // message, thread name, and MDC are captured on the logging thread
+        this.queue.add(new QueuedEvent(event, Context.current()));
+        if (this.workerParked) {
+            LockSupport.unpark(this.worker);
+        }
+    }
+
+    // Lock-free bound: CAS a slot before enqueueing. Lower levels see a smaller capacity, so they are dropped first
+    private boolean reserve(final Level level) {
+        final int limit = (level.toInt() >= Level.ERROR_INT) ? this.capacity : (level.toInt() >= Level.WARN_INT) ? this.warnLimit : this.infoLimit;
+        while (true) {
+            final int current = this.size.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (this.size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Map<String, String> allowlistedMdc() {
+        if (this.mdcKeyList.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, String> mdc = new HashMap<>(this.mdcKeyList.size() * 2);
+        for (final String key : this.mdcKeyList) {
+            final String value = MDC.get(key);
+            if (value != null) {
+                mdc.put(key, value);
+            }
+        }
+        return mdc;
+    }
+
+    private void exportLoop() {
+        final long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(this.flushIntervalMillis);
+        while (this.running || !this.queue.isEmpty()) {
+            if (exportBatch() == 0) {
+                this.workerParked = true;
+                if (this.queue.isEmpty() && this.running) { // re-check after publishing workerParked, so an append can't be missed
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                this.workerParked = false;
+            }
+        }
+    }
+
+    private int exportBatch() {
+        int count = 0;
+        QueuedEvent queuedEvent;
+        while ((count < this.batchSize) && ((queuedEvent = this.queue.poll()) != null)) {
+            this.size.decrementAndGet();
+            try (Scope ignored = queuedEvent.context().makeCurrent()) { // OpenTelemetryAppender reads trace and span IDs from the current context
+                this.appenders.appendLoopOnAppenders(queuedEvent.event());
+                this.exported.incrementAndGet();
+            } catch (RuntimeException e) {
+                addError("Failed to export log event", e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // OpenTelemetryAppender.install only finds appenders attached directly to loggers
+    public void installOpenTelemetry(final OpenTelemetry openTelemetry) {
+        final Iterator<Appender<ILoggingEvent>> iterator = this.appenders.iteratorForAppenders();
+        while (iterator.hasNext()) {
+            if (iterator.next() instanceof OpenTelemetryAppender openTelemetryAppender) {
+                openTelemetryAppender.setOpenTelemetry(openTelemetry);
+            }
+        }
+    }
+
+    public int queueSize() {
+        return this.size.get();
+    }
+
+    public long exportedCount() {
+        return this.exported.get();
+    }
+
+    public long droppedCount(final Level level) {
+        return this.dropped.get(level).get();
+    }
+
+    public void setCapacity(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setInfoFillLimit(final int infoFillLimit) {
+        this.infoFillLimit = infoFillLimit;
+    }
+
+    public void setWarnFillLimit(final int warnFillLimit) {
+        this.warnFillLimit = warnFillLimit;
+    }
+
+    public void setFlushIntervalMillis(final long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void setShutdownTimeoutMillis(final long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    public void setMdcKeys(final String mdcKeys) {
+        this.mdcKeys = mdcKeys;
+    }
+
+    @Override
+    public void addAppender(final Appender<ILoggingEvent> appender) {
+        this.appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return this.appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(final String name) {
+        return this.appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(final Appender<ILoggingEvent> appender) {
+        return this.appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        this.appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(final Appender<ILoggingEvent> appender) {
+        return this.appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(final String name) {
+        return this.appenders.detachAppender(name);
+    }
+}
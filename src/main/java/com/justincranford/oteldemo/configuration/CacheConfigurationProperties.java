@@ -0,0 +1,34 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.cache")
+@Validated
+@Data
+public class CacheConfigurationProperties {
+
+    @Valid
+    private ByName byName = new ByName();
+
+    @Data
+    public static class ByName {
+        // per entity type (User, Asset); least recently/frequently used names are evicted first
+        @Min(1)
+        private long maxSize = 10000;
+        // found entities; bounds staleness if a save bypasses the entity listener
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(10);
+        // names not found; short, so a new entity saved by another node becomes visible soon
+        @NotNull
+        private Duration negativeTtl = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,133 @@
+package com.justincranford.oteldemo.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps distinct tag combinations (series) per meter name, so a tag like a URI, user name, or asset name can't grow the registered meters
+ * and the /actuator/prometheus scrape without bound. Once a meter name has maxSeries series, each new combination maps to one overflow
+ * series with every tag value "other", except preserved tags (e.g. common tags); existing series keep recording as before.
+ * Limit: each registry still caches one entry per distinct pre-filter ID (pointing at the shared overflow meter), so heap keeps growing
+ * slowly with unbounded tag values; this is a safety net for the export, not a fix for the instrumentation.
+ * Series are released when their meter is removed from a registry (see {@link #onMeterRemoved(Meter)}), so new combinations can take their place.
+ * Metrics: meter.cardinality.collapsed (registrations mapped to an overflow series), meter.cardinality.series{meter} (top offenders, see {@link #reportTopOffenders()}).
+ */
+@Slf4j
+public class CardinalityLimitingMeterFilter implements MeterFilter, MeterBinder {
+    public static final String OTHER = "other";
+    private static final String METRICS_PREFIX = "meter.cardinality."; // own metrics are never limited
+
+    private final int defaultMaxSeries;
+    private final Map<String, Integer> maxSeriesByName;
+    private final Set<String> preservedTagKeys;
+    private final int topOffenders;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final LongAdder collapsed = new LongAdder();
+    private volatile MultiGauge topOffendersGauge;
+
+    // series: reported by /actuator/cardinality; collapsed: registrations mapped to the overflow series (once per registry, e.g. Prometheus and OTLP)
+    public record MeterCardinality(String meter, int series, int maxSeries, long collapsed) {
+    }
+
+    private static final class Limit {
+        private final int maxSeries;
+        private final Map<List<Tag>, Integer> series = new ConcurrentHashMap<>(); // tags -> number of registries holding a meter with them
+        private final AtomicInteger size = new AtomicInteger(0);
+        private final LongAdder collapsed = new LongAdder();
+
+        private Limit(final int maxSeries) {
+            this.maxSeries = maxSeries;
+        }
+
+        private boolean tryReserve() {
+            int current;
+            do {
+                current = this.size.get();
+                if (current >= this.maxSeries) {
+                    return false;
+                }
+            } while (!this.size.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+
+    public CardinalityLimitingMeterFilter(final MetricsConfigurationProperties.Cardinality cardinality, final Set<String> preservedTagKeys) {
+        this.defaultMaxSeries = cardinality.getMaxSeries();
+        this.maxSeriesByName = Map.copyOf(cardinality.getMaxSeriesByName());
+        this.preservedTagKeys = Set.copyOf(preservedTagKeys);
+        this.topOffenders = cardinality.getTopOffenders();
+    }
+
+    // Micrometer calls this once per new pre-filter ID per registry, not per recording, so it's off the hot path
+    @Override
+    public Meter.Id map(final Meter.Id id) {
+        final List<Tag> tags = id.getTags();
+        if (tags.isEmpty() || id.getName().startsWith(METRICS_PREFIX)) {
+            return id;
+        }
+        final Limit limit = this.limits.computeIfAbsent(id.getName(), name -> new Limit(this.maxSeriesByName.getOrDefault(name, this.defaultMaxSeries)));
+        // one call per registry that registers the series (e.g. Prometheus and OTLP), so holders match onMeterRemoved calls
+        if (limit.series.compute(tags, (key, holders) -> (holders != null) ? Integer.valueOf(holders + 1) : limit.tryReserve() ? Integer.valueOf(1) : null) != null) {
+            return id;
+        }
+        if (limit.collapsed.sum() == 0L) {
+            log.warn("Meter {} reached {} series, new tag combinations are collapsed into tag value '{}'", id.getName(), limit.maxSeries, OTHER);
+        }
+        limit.collapsed.increment();
+        this.collapsed.increment();
+        return id.replaceTags(tags.stream().map(tag -> this.preservedTagKeys.contains(tag.getKey()) ? tag : Tag.of(tag.getKey(), OTHER)).toList());
+    }
+
+    // Register with every registry this filter is installed in (see MeterCardinalityConfiguration); removed overflow meters are ignored
+    public void onMeterRemoved(final Meter meter) {
+        final Limit limit = this.limits.get(meter.getId().getName());
+        if (limit != null) {
+            limit.series.computeIfPresent(meter.getId().getTags(), (key, holders) -> {
+                if (holders > 1) {
+                    return holders - 1;
+                }
+                limit.size.decrementAndGet();
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry) {
+        FunctionCounter.builder(METRICS_PREFIX + "collapsed", this.collapsed, LongAdder::sum).description("Meter registrations collapsed into an overflow series by the cardinality limit").register(meterRegistry);
+        this.topOffendersGauge = MultiGauge.builder(METRICS_PREFIX + "series").description("Distinct tag combinations of the meters with the most series").register(meterRegistry);
+        reportTopOffenders();
+    }
+
+    // Called periodically (see MeterCardinalityReportTask), because registering gauges from map() would re-enter the registry
+    public void reportTopOffenders() {
+        final MultiGauge multiGauge = this.topOffendersGauge;
+        if (multiGauge != null) {
+            multiGauge.register(topOffenders().stream().<MultiGauge.Row<?>>map(meterCardinality -> MultiGauge.Row.of(Tags.of("meter", meterCardinality.meter()), this.limits.get(meterCardinality.meter()), limit -> limit.size.get())).toList(), true);
+        }
+    }
+
+    // Most series first, then most collapsed
+    public List<MeterCardinality> topOffenders() {
+        return this.limits.entrySet().stream()
+            .map(entry -> new MeterCardinality(entry.getKey(), entry.getValue().size.get(), entry.getValue().maxSeries, entry.getValue().collapsed.sum()))
+            .sorted(Comparator.comparingInt(MeterCardinality::series).thenComparingLong(MeterCardinality::collapsed).reversed())
+            .limit(this.topOffenders)
+            .toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.justincranford.oteldemo.configuration;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps concurrent connection holders with a fair semaphore. A permit is taken in getConnection and returned by Connection.close.
+ * With virtual threads there can be thousands of concurrent requests; waiting here in FIFO order is cheap, whereas all of them
+ * spinning on the connection pool's handoff queue causes timeouts and unfair starvation.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int limit;
+    private final long timeoutMillis;
+
+    public ConnectionLimitingDataSource(final DataSource targetDataSource, final int limit, final long timeoutMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    public int waiting() {
+        return this.permits.getQueueLength();
+    }
+
+    public int available() {
+        return this.permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!this.permits.tryAcquire(this.timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out after " + this.timeoutMillis + "ms waiting for one of " + this.limit + " DB connection permits");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            throw new SQLTransientConnectionException("Interrupted waiting for a DB connection permit", e);
+        }
+    }
+
+    // All calls are delegated, including unwrap (e.g. to PGConnection for COPY); the first close also releases the permit
+    private Connection releaseOnClose(final Connection connection) {
+        final AtomicBoolean released = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if ("close".equals(method.getName()) && (method.getParameterCount() == 0) && released.compareAndSet(false, true)) {
+                    this.permits.release();
+                }
+            }
+        });
+    }
+}
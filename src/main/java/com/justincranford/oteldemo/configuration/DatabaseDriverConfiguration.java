@@ -0,0 +1,24 @@
+package com.justincranford.oteldemo.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+// Native SQL differs between PostgreSQL and H2 (e.g. upserts); detect once at startup, instead of parsing spring.datasource.url
+@Configuration
+@Slf4j
+public class DatabaseDriverConfiguration {
+    @Bean
+    public DatabaseDriver databaseDriver(final DataSource dataSource) throws MetaDataAccessException {
+        final String databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        final DatabaseDriver databaseDriver = DatabaseDriver.fromProductName(databaseProductName);
+        log.info("Database product: {}, driver: {}", databaseProductName, databaseDriver);
+        return databaseDriver;
+    }
+}
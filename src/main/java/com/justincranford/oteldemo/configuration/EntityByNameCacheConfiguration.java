@@ -0,0 +1,21 @@
+package com.justincranford.oteldemo.configuration;
+
+import com.justincranford.oteldemo.entity.Asset;
+import com.justincranford.oteldemo.entity.User;
+import com.justincranford.oteldemo.repository.EntityByNameCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EntityByNameCacheConfiguration {
+    @Bean
+    public EntityByNameCache<User> userByNameCache(final CacheConfigurationProperties cacheConfigurationProperties, final MeterRegistry meterRegistry) {
+        return new EntityByNameCache<>("users.by_name", User.class, User::name, cacheConfigurationProperties.getByName(), meterRegistry);
+    }
+
+    @Bean
+    public EntityByNameCache<Asset> assetByNameCache(final CacheConfigurationProperties cacheConfigurationProperties, final MeterRegistry meterRegistry) {
+        return new EntityByNameCache<>("assets.by_name", Asset.class, Asset::name, cacheConfigurationProperties.getByName(), meterRegistry);
+    }
+}
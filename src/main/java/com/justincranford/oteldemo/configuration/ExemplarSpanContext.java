@@ -0,0 +1,37 @@
+package com.justincranford.oteldemo.configuration;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.prometheus.metrics.tracer.common.SpanContext;
+
+/**
+ * Trace and span IDs for Prometheus exemplars, from the current OpenTelemetry span (made current by the micrometer-otel bridge).
+ * The Prometheus client keeps at most one exemplar per histogram bucket, and replaces it lock-free and rate limited, so recording stays cheap.
+ * Unlike Spring Boot's default, this marks spans chosen as exemplars, so TailSamplingSpanProcessor keeps their traces, up to its exemplar trace budget.
+ */
+public class ExemplarSpanContext implements SpanContext {
+    public static final AttributeKey<Boolean> EXEMPLAR = AttributeKey.booleanKey("exemplar");
+
+    @Override
+    public String getCurrentTraceId() {
+        final io.opentelemetry.api.trace.SpanContext spanContext = Span.current().getSpanContext();
+        return spanContext.isValid() ? spanContext.getTraceId() : null;
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        final io.opentelemetry.api.trace.SpanContext spanContext = Span.current().getSpanContext();
+        return spanContext.isValid() ? spanContext.getSpanId() : null;
+    }
+
+    // Unsampled spans are never exported, so they can't be exemplars
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return Span.current().getSpanContext().isSampled();
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        Span.current().setAttribute(EXEMPLAR, true);
+    }
+}
@@ -0,0 +1,31 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+// Used by OpenTelemetryJdbcConfiguration
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.jdbc")
+@Validated
+@Data
+public class JdbcConfigurationProperties {
+    @NotNull
+    private TelemetryMode telemetryMode = TelemetryMode.SPANS;
+    // AGGREGATED only: statements at least this slow still get their own span
+    @NotNull
+    private Duration slowThreshold = Duration.ofMillis(100);
+    // AGGREGATED only: bounded metric cardinality; further SQL shapes share the "other" fingerprint
+    @Min(1)
+    private int maxShapes = 500;
+
+    public enum TelemetryMode {
+        SPANS,     // OpenTelemetry JdbcTelemetry: one span per statement and transaction, with query parameters
+        AGGREGATED // AggregatingJdbcDataSource: per SQL shape metrics; spans only for slow or failed statements
+    }
+}
@@ -0,0 +1,159 @@
+package com.justincranford.oteldemo.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits identical log statements (same logger and message template, e.g. "Recording temperature {}") before any appender runs,
+ * so console and OpenTelemetry export both benefit. Each template may log maxPerWindow events per windowMillis; the rest are suppressed,
+ * and one summary event ("Suppressed N similar ...") is logged at the same level when the window ends. Levels above maxLevel are never suppressed.
+ * Memory is bounded by maxKeys; templates beyond that are not limited, so nothing is lost silently.
+ */
+public class LogRateLimitingTurboFilter extends TurboFilter {
+    private static final Marker SUMMARY = MarkerFactory.getMarker("LOG_RATE_LIMIT_SUMMARY"); // bypasses this filter
+
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong suppressed = new AtomicLong(0L);
+    private ScheduledExecutorService sweeper;
+
+    // Logback XML properties
+    private long windowMillis = 10_000L;
+    private int maxPerWindow = 5;
+    private int maxKeys = 10_000;
+    private String maxLevel = "WARN";
+
+    private Level maxLevelValue;
+
+    private record Key(Logger logger, String format) {
+    }
+
+    // Guarded by synchronized(this)
+    private static final class Window {
+        private final Level level;
+        private long startMillis;
+        private int count = 0;
+        private long suppressed = 0L;
+        private long lastUsedMillis;
+
+        private Window(final Level level, final long nowMillis) {
+            this.level = level;
+            this.startMillis = nowMillis;
+            this.lastUsedMillis = nowMillis;
+        }
+    }
+
+    @Override
+    public void start() {
+        this.maxLevelValue = Level.toLevel(this.maxLevel, Level.WARN);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "log-rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweep, this.windowMillis, this.windowMillis, TimeUnit.MILLISECONDS);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (this.sweeper != null) {
+            this.sweeper.shutdownNow();
+        }
+        this.windows.forEach((key, window) -> {
+            synchronized (window) {
+                summarize(key, window);
+            }
+        });
+        this.windows.clear();
+        super.stop();
+    }
+
+    @Override
+    public FilterReply decide(final Marker marker, final Logger logger, final Level level, final String format, final Object[] params, final Throwable t) {
+        if (!isStarted() || (format == null) || (level.toInt() > this.maxLevelValue.toInt()) || (marker == SUMMARY) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL; // effective level check instead of isEnabledFor, which would call this filter again
+        }
+        final long nowMillis = System.currentTimeMillis();
+        final Key key = new Key(logger, format);
+        Window window = this.windows.get(key);
+        if (window == null) {
+            if (this.windows.size() >= this.maxKeys) {
+                return FilterReply.NEUTRAL;
+            }
+            window = this.windows.computeIfAbsent(key, k -> new Window(level, nowMillis));
+        }
+        synchronized (window) {
+            window.lastUsedMillis = nowMillis;
+            if (nowMillis - window.startMillis >= this.windowMillis) {
+                summarize(key, window);
+                window.startMillis = nowMillis;
+                window.count = 0;
+            }
+            if (++window.count <= this.maxPerWindow) {
+                return FilterReply.NEUTRAL;
+            }
+            window.suppressed++;
+        }
+        this.suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    public long suppressedCount() {
+        return this.suppressed.get();
+    }
+
+    // Summarize ended windows that nobody logged into since, and forget templates idle for a whole window
+    private void sweep() {
+        final long nowMillis = System.currentTimeMillis();
+        this.windows.forEach((key, window) -> {
+            synchronized (window) {
+                if (nowMillis - window.startMillis >= this.windowMillis) {
+                    summarize(key, window);
+                    window.startMillis = nowMillis;
+                    window.count = 0;
+                    if (nowMillis - window.lastUsedMillis >= this.windowMillis) {
+                        this.windows.remove(key, window);
+                    }
+                }
+            }
+        });
+    }
+
+    private void summarize(final Key key, final Window window) {
+        if (window.suppressed == 0L) {
+            return;
+        }
+        final long count = window.suppressed;
+        window.suppressed = 0L;
+        key.logger().atLevel(org.slf4j.event.Level.intToLevel(Level.toLocationAwareLoggerInteger(window.level)))
+            .addMarker(SUMMARY)
+            .log("Suppressed {} similar log events in {}ms: {}", count, this.windowMillis, key.format());
+    }
+
+    public void setWindowMillis(final long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void setMaxPerWindow(final int maxPerWindow) {
+        this.maxPerWindow = maxPerWindow;
+    }
+
+    public void setMaxKeys(final int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public void setMaxLevel(final String maxLevel) {
+        this.maxLevel = maxLevel;
+    }
+}
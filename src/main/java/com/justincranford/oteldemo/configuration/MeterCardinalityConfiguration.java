@@ -0,0 +1,40 @@
+package com.justincranford.oteldemo.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+// Spring Boot installs MeterFilter beans in every MeterRegistry (after customizers, so common tags are already added), and binds MeterBinder beans
+@Configuration
+@ConditionalOnProperty(prefix="otel.demo.metrics.cardinality", name="enabled", havingValue="true")
+@Slf4j
+public class MeterCardinalityConfiguration {
+    @Bean
+    public CardinalityLimitingMeterFilter cardinalityLimitingMeterFilter(final MetricsConfigurationProperties metricsConfigurationProperties) {
+        final MetricsConfigurationProperties.Cardinality cardinality = metricsConfigurationProperties.getCardinality();
+        log.info("Meter cardinality limit: maxSeries={}, maxSeriesByName={}", cardinality.getMaxSeries(), cardinality.getMaxSeriesByName());
+        return new CardinalityLimitingMeterFilter(cardinality, OpenTelemetryMetricsConfiguration.COMMON_TAGS.stream().map(Tag::getKey).collect(Collectors.toSet()));
+    }
+
+    // Same registries as the filter: Spring Boot doesn't install MeterFilter beans in its auto-configured composite registry
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> cardinalityLimitingMeterRegistryCustomizer(final CardinalityLimitingMeterFilter cardinalityLimitingMeterFilter) {
+        return meterRegistry -> {
+            if (!(meterRegistry instanceof CompositeMeterRegistry)) {
+                meterRegistry.config().onMeterRemoved(cardinalityLimitingMeterFilter::onMeterRemoved);
+            }
+        };
+    }
+
+    @Bean
+    public MeterCardinalityEndpoint meterCardinalityEndpoint(final CardinalityLimitingMeterFilter cardinalityLimitingMeterFilter) {
+        return new MeterCardinalityEndpoint(cardinalityLimitingMeterFilter);
+    }
+}
@@ -0,0 +1,19 @@
+package com.justincranford.oteldemo.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+// GET /actuator/cardinality: meters with the most distinct tag combinations, and how many registrations the cap collapsed
+@Endpoint(id="cardinality")
+@RequiredArgsConstructor
+public class MeterCardinalityEndpoint {
+    private final CardinalityLimitingMeterFilter cardinalityLimitingMeterFilter;
+
+    @ReadOperation
+    public List<CardinalityLimitingMeterFilter.MeterCardinality> topOffenders() {
+        return this.cardinalityLimitingMeterFilter.topOffenders();
+    }
+}
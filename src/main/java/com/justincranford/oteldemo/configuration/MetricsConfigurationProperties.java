@@ -0,0 +1,41 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.metrics")
+@Validated
+@Data
+public class MetricsConfigurationProperties {
+
+    @Valid
+    private Cardinality cardinality = new Cardinality();
+
+    @Data
+    public static class Cardinality {
+        // true=install CardinalityLimitingMeterFilter in every MeterRegistry
+        private boolean enabled = false;
+        // distinct tag combinations per meter name; further combinations share one series with "other" tag values
+        @Min(1)
+        private int maxSeries = 1000;
+        // per meter name overrides of maxSeries, e.g. max-series-by-name[http.server.requests]=200
+        @NotNull
+        private Map<String, @Min(1) Integer> maxSeriesByName = new HashMap<>();
+        // meters with the most series, reported by metric meter.cardinality.series and /actuator/cardinality
+        @Min(1)
+        private int topOffenders = 10;
+        // how often metric meter.cardinality.series is updated
+        @NotNull
+        private Duration reportInterval = Duration.ofMinutes(1);
+    }
+}
@@ -1,10 +1,12 @@
 package com.justincranford.oteldemo.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.instrumentation.jdbc.datasource.JdbcTelemetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -22,10 +24,17 @@ public class OpenTelemetryJdbcConfiguration  {
     @RequiredArgsConstructor
     public static class MyBeanPostProcessor implements BeanPostProcessor {
         private final OpenTelemetry openTelemetry; // Bean managed by Spring Boot lifecycle
+        private final ObjectProvider<MeterRegistry> meterRegistry; // lazy, only resolved if a DataSource is wrapped in AGGREGATED mode
+        private final JdbcConfigurationProperties jdbcConfigurationProperties;
 
         @Override
         public Object postProcessAfterInitialization(@NonNull final Object bean, @NonNull final String beanName) throws BeansException {
             if (bean instanceof DataSource dataSource) {
+                if (this.jdbcConfigurationProperties.getTelemetryMode() == JdbcConfigurationProperties.TelemetryMode.AGGREGATED) {
+                    final DataSource aggregatingDataSource = new AggregatingJdbcDataSource(dataSource, this.openTelemetry, this.meterRegistry.getObject(), this.jdbcConfigurationProperties);
+                    log.info("Bean: {}, Plain: {}, Wrapped: {}, slowThreshold: {}", beanName, bean.getClass().getName(), aggregatingDataSource.getClass().getName(), this.jdbcConfigurationProperties.getSlowThreshold());
+                    return aggregatingDataSource;
+                }
                 final JdbcTelemetry jdbcTelemetry = JdbcTelemetry.builder(this.openTelemetry)
                     .setStatementSanitizationEnabled(true)
                     .setCaptureQueryParameters(true)
@@ -1,11 +1,24 @@
 package com.justincranford.oteldemo.configuration;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.instrumentation.logback.appender.v1_0.OpenTelemetryAppender;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * ============================================================================
  * <pre>
@@ -49,5 +62,45 @@ class OpenTelemetryLogsConfiguration implements InitializingBean {
     @Override
     public void afterPropertiesSet() {
         OpenTelemetryAppender.install(this.openTelemetry); // static OpenTelemetryAppender is not managed by Spring Boot lifecycle
+        asyncOpenTelemetryAppenders().forEach(appender -> appender.installOpenTelemetry(this.openTelemetry)); // nested OpenTelemetryAppender (see logback-spring.xml)
+    }
+
+    // Logback creates appenders before Spring, so metrics read appender state instead of the appender registering meters
+    @Bean
+    public MeterBinder asyncOpenTelemetryAppenderMetrics() {
+        return meterRegistry -> asyncOpenTelemetryAppenders().forEach(appender -> {
+            Gauge.builder("logback.otel.queue.size", appender, AsyncOpenTelemetryAppender::queueSize).description("Log events waiting for OpenTelemetry export").tags("appender", appender.getName()).register(meterRegistry);
+            FunctionCounter.builder("logback.otel.events", appender, AsyncOpenTelemetryAppender::exportedCount).description("Log events handled by the async OpenTelemetry appender").tags("appender", appender.getName(), "result", "exported").register(meterRegistry);
+            for (final Level level : List.of(Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR)) {
+                FunctionCounter.builder("logback.otel.events", appender, a -> a.droppedCount(level)).description("Log events handled by the async OpenTelemetry appender").tags("appender", appender.getName(), "result", "dropped", "level", level.toString()).register(meterRegistry);
+            }
+        });
+    }
+
+    @Bean
+    public MeterBinder logRateLimitingTurboFilterMetrics() {
+        return meterRegistry -> {
+            if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+                loggerContext.getTurboFilterList().stream()
+                    .filter(LogRateLimitingTurboFilter.class::isInstance)
+                    .map(LogRateLimitingTurboFilter.class::cast)
+                    .forEach(filter -> FunctionCounter.builder("logback.suppressed", filter, LogRateLimitingTurboFilter::suppressedCount).description("Log events suppressed as duplicates, summarized per window").register(meterRegistry));
+            }
+        };
+    }
+
+    private static List<AsyncOpenTelemetryAppender> asyncOpenTelemetryAppenders() {
+        final List<AsyncOpenTelemetryAppender> asyncOpenTelemetryAppenders = new ArrayList<>();
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            loggerContext.getLoggerList().forEach(logger -> {
+                final Iterator<Appender<ILoggingEvent>> iterator = logger.iteratorForAppenders();
+                while (iterator.hasNext()) {
+                    if (iterator.next() instanceof AsyncOpenTelemetryAppender asyncOpenTelemetryAppender) {
+                        asyncOpenTelemetryAppenders.add(asyncOpenTelemetryAppender);
+                    }
+                }
+            });
+        }
+        return asyncOpenTelemetryAppenders;
     }
 }
@@ -1,14 +1,25 @@
 package com.justincranford.oteldemo.configuration;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.prometheus.metrics.tracer.common.SpanContext;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class OpenTelemetryMetricsConfiguration {
+    // kept by the overflow series of CardinalityLimitingMeterFilter
+    static final Tags COMMON_TAGS = Tags.of("foo", "OpenTelemetryTracesConfiguration", "bar", "2");
+
     @Bean
     public MeterRegistryCustomizer<MeterRegistry> additionalTagsForMetricsOnly() {
-        return registry -> registry.config().commonTags("foo", "OpenTelemetryTracesConfiguration", "bar", "2");
+        return registry -> registry.config().commonTags(COMMON_TAGS);
+    }
+
+    // Replaces Spring Boot's exemplar SpanContext; exemplars are only in the OpenMetrics format (i.e. Accept: application/openmetrics-text)
+    @Bean
+    public SpanContext exemplarSpanContext() {
+        return new ExemplarSpanContext();
     }
 }
@@ -0,0 +1,59 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Replaces Spring Boot's probability Sampler bean (management.tracing.sampling.probability is then ignored)
+@Configuration
+@ConditionalOnProperty(prefix="otel.demo.tracing.adaptive-sampling", name="enabled", havingValue="true")
+@Slf4j
+public class OpenTelemetrySamplerConfiguration {
+    @Bean
+    public AdaptiveRateLimitingSampler adaptiveRateLimitingSampler(final TracingConfigurationProperties tracingConfigurationProperties) {
+        final TracingConfigurationProperties.AdaptiveSampling adaptiveSampling = tracingConfigurationProperties.getAdaptiveSampling();
+        log.info("Adaptive sampling: tracesPerSecond={} per route, interval={}", adaptiveSampling.getTracesPerSecond(), adaptiveSampling.getInterval());
+        return new AdaptiveRateLimitingSampler(adaptiveSampling);
+    }
+
+    // Must run before ServerHttpObservationFilter (HIGHEST_PRECEDENCE + 1), which starts the server span, i.e. calls the Sampler
+    @Bean
+    public FilterRegistrationBean<Filter> samplerRouteFilter(final AdaptiveRateLimitingSampler adaptiveRateLimitingSampler) {
+        final FilterRegistrationBean<Filter> filterRegistrationBean = new FilterRegistrationBean<>(new RouteFilter(adaptiveRateLimitingSampler));
+        filterRegistrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return filterRegistrationBean;
+    }
+
+    // The handler pattern is only known after dispatch, so it is learned for the next requests to the same path
+    @RequiredArgsConstructor
+    public static class RouteFilter implements Filter {
+        private final AdaptiveRateLimitingSampler adaptiveRateLimitingSampler;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            final String path = ((HttpServletRequest) request).getRequestURI();
+            AdaptiveRateLimitingSampler.setCurrentRoute(this.adaptiveRateLimitingSampler.currentRoute(path));
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                AdaptiveRateLimitingSampler.clearCurrentRoute();
+                if (request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String bestMatchingPattern) {
+                    this.adaptiveRateLimitingSampler.learnRoute(path, bestMatchingPattern);
+                }
+            }
+        }
+    }
+}
@@ -1,36 +1,26 @@
 package com.justincranford.oteldemo.configuration;
 
-import io.opentelemetry.context.Context;
-import io.opentelemetry.sdk.trace.ReadWriteSpan;
-import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
-//@Configuration
+// Replaces Spring Boot's SpanProcessors bean, to put tail sampling in front of the exporting BatchSpanProcessor; other SpanProcessors still see every span
+@Configuration
+@ConditionalOnProperty(prefix="otel.demo.tracing.tail-sampling", name="enabled", havingValue="true")
+@Slf4j
 public class OpenTelemetryTracesConfiguration {
     @Bean
-    public SpanProcessor customSpanProcessor() {
-        return new SpanProcessor() {
-            @Override
-            public boolean isStartRequired() {
-                return false; // this SpanProcessor doesn't require start events
-            }
-
-            @Override
-            public boolean isEndRequired() {
-                return false; // this SpanProcessor doesn't require end events
-            }
-
-            @Override
-            public void onStart(Context parentContext, ReadWriteSpan span) {
-                span.setAttribute("foo", "OpenTelemetryTracesConfiguration");
-                span.setAttribute("bar", "1");
-            }
-
-            @Override
-            public void onEnd(ReadableSpan span) {
-                // do nothing
-            }
-        };
+    public SpanProcessors spanProcessors(final ObjectProvider<SpanProcessor> spanProcessors, final TracingConfigurationProperties tracingConfigurationProperties, final ObjectProvider<MeterRegistry> meterRegistry) {
+        final TracingConfigurationProperties.TailSampling tailSampling = tracingConfigurationProperties.getTailSampling();
+        log.info("Tail sampling: latencyThreshold={}, baseRate={}, maxTraces={}", tailSampling.getLatencyThreshold(), tailSampling.getBaseRate(), tailSampling.getMaxTraces());
+        return SpanProcessors.of(spanProcessors.orderedStream()
+            .map(spanProcessor -> (spanProcessor instanceof BatchSpanProcessor) ? new TailSamplingSpanProcessor(spanProcessor, tailSampling, meterRegistry.getObject()) : spanProcessor)
+            .toList());
     }
 }
@@ -0,0 +1,18 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+// Only used with the reactive profile (spring.main.web-application-type=reactive)
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.reactive")
+@Validated
+@Data
+public class ReactiveConfigurationProperties {
+    // R2DBC pool, separate from the Hikari JDBC pool; both connect to spring.datasource.url
+    @Min(1)
+    private int poolMaxSize = 10;
+}
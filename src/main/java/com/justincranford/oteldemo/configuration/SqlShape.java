@@ -0,0 +1,30 @@
+package com.justincranford.oteldemo.configuration;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sanitized SQL with literals replaced by ?, so statements that differ only in values (or IN list length) share one shape.
+ * The fingerprint is a short, stable metric tag for the shape; the full sanitized SQL is logged once per shape, and attached to slow statement spans.
+ */
+public record SqlShape(String sanitized, String fingerprint, String operation, String table) {
+    static final SqlShape OTHER = new SqlShape("other", "other", "other", "other");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:FROM|INTO|UPDATE|JOIN|TABLE)\\s+([\\w.\"]+)", Pattern.CASE_INSENSITIVE);
+
+    public static SqlShape of(final String sql) {
+        String sanitized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        sanitized = NUMERIC_LITERAL.matcher(sanitized).replaceAll("?");
+        sanitized = PLACEHOLDER_LIST.matcher(sanitized).replaceAll("(?)"); // IN (?, ?, ?) -> IN (?)
+        sanitized = WHITESPACE.matcher(sanitized).replaceAll(" ").trim();
+        final int firstSpace = sanitized.indexOf(' ');
+        final String operation = ((firstSpace < 0) ? sanitized : sanitized.substring(0, firstSpace)).toUpperCase(Locale.ROOT);
+        final Matcher table = TABLE.matcher(sanitized);
+        return new SqlShape(sanitized, "%08x".formatted(sanitized.hashCode()), operation, table.find() ? table.group(1).toLowerCase(Locale.ROOT) : "unknown");
+    }
+}
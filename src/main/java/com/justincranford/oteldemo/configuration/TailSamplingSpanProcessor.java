@@ -0,0 +1,289 @@
+package com.justincranford.oteldemo.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tail sampling: buffers ended spans per trace, and when the trace's local root span ends, forwards all of its spans to the delegate
+ * (e.g. the exporting BatchSpanProcessor) or none of them. Kept: any span with ERROR status (e.g. set by OtelStatusFilter),
+ * root latency at least latencyThreshold, any span linked by a metric exemplar (see ExemplarSpanContext), or a baseRate sample by trace ID. Memory is bounded by maxTraces and maxSpansPerTrace;
+ * exemplar traces are capped at maxExemplarTracesPerSecond, because each histogram bucket of each series picks new exemplars, so over budget they're sampled like any other trace,
+ * and their exemplars may link to dropped traces;
+ * traces are decided early (with the spans buffered so far) when the buffer is full or they're older than maxTraceAge.
+ * Buffered traces are one insertion-ordered map, so a decided trace leaves no ID behind, even while an older trace stays open.
+ * Metrics: otel.tail_sampling.traces{decision}, otel.tail_sampling.spans.dropped{reason}, otel.tail_sampling.exemplars.over_budget, otel.tail_sampling.buffered.traces/spans.
+ */
+@Slf4j
+public class TailSamplingSpanProcessor implements SpanProcessor {
+    private final SpanProcessor delegate;
+    private final long latencyThresholdNanos;
+    private final long baseRateThreshold;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final long maxTraceAgeNanos;
+    private final int maxExemplarTracesPerSecond;
+
+    private final Map<String, TraceBuffer> traces = new LinkedHashMap<>(); // oldest first; guarded by synchronized(this.traces)
+    private final Cache<String, Boolean> decisions;
+    private final AtomicInteger bufferedSpans = new AtomicInteger(0);
+    private final ScheduledExecutorService sweeper;
+
+    private final Object exemplarBudgetLock = new Object();
+    private long exemplarBudgetSecond = Long.MIN_VALUE; // guarded by synchronized(this.exemplarBudgetLock)
+    private int exemplarBudgetUsed = 0; // guarded by synchronized(this.exemplarBudgetLock)
+
+    private final Counter keptErrorCounter;
+    private final Counter keptLatencyCounter;
+    private final Counter keptExemplarCounter;
+    private final Counter keptSampledCounter;
+    private final Counter droppedCounter;
+    private final Counter overflowSpansCounter;
+    private final Counter lateDroppedSpansCounter;
+    private final Counter exemplarOverBudgetCounter;
+
+    private enum Decision {
+        KEPT_ERROR, KEPT_LATENCY, KEPT_EXEMPLAR, KEPT_SAMPLED, DROPPED
+    }
+
+    // Guarded by synchronized(buffer)
+    private static final class TraceBuffer {
+        private final long createdNanos = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean error = false;
+        private long maxLatencyNanos = 0L;
+        private boolean exemplar = false;
+        private boolean decided = false;
+    }
+
+    public TailSamplingSpanProcessor(final SpanProcessor delegate, final TracingConfigurationProperties.TailSampling tailSampling, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = tailSampling.getLatencyThreshold().toNanos();
+        this.baseRateThreshold = (long) (tailSampling.getBaseRate() * Long.MAX_VALUE); // same arithmetic as TraceIdRatioBasedSampler
+        this.maxTraces = tailSampling.getMaxTraces();
+        this.maxSpansPerTrace = tailSampling.getMaxSpansPerTrace();
+        this.maxTraceAgeNanos = tailSampling.getMaxTraceAge().toNanos();
+        this.maxExemplarTracesPerSecond = tailSampling.getMaxExemplarTracesPerSecond();
+        this.decisions = Caffeine.newBuilder().maximumSize(tailSampling.getMaxTraces()).expireAfterWrite(tailSampling.getDecisionTtl()).build();
+
+        Gauge.builder("otel.tail_sampling.buffered.traces", this.traces, Map::size).description("Traces waiting for a tail sampling decision").register(meterRegistry);
+        Gauge.builder("otel.tail_sampling.buffered.spans", this.bufferedSpans, AtomicInteger::get).description("Spans waiting for a tail sampling decision").register(meterRegistry);
+        this.keptErrorCounter = tracesCounter(meterRegistry, "kept_error");
+        this.keptLatencyCounter = tracesCounter(meterRegistry, "kept_latency");
+        this.keptExemplarCounter = tracesCounter(meterRegistry, "kept_exemplar");
+        this.keptSampledCounter = tracesCounter(meterRegistry, "kept_sampled");
+        this.droppedCounter = tracesCounter(meterRegistry, "dropped");
+        this.overflowSpansCounter = droppedSpansCounter(meterRegistry, "overflow");
+        this.lateDroppedSpansCounter = droppedSpansCounter(meterRegistry, "late");
+        this.exemplarOverBudgetCounter = Counter.builder("otel.tail_sampling.exemplars.over_budget").description("Traces linked by exemplars, but not kept as exemplar traces, because of maxExemplarTracesPerSecond").register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "otel-tail-sampling-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long sweepIntervalMillis = Math.max(100L, TimeUnit.NANOSECONDS.toMillis(this.maxTraceAgeNanos) / 10);
+        this.sweeper.scheduleWithFixedDelay(this::expireOldTraces, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onStart(final Context parentContext, final ReadWriteSpan span) {
+        this.delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return this.delegate.isStartRequired();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(final ReadableSpan span) {
+        final String traceId = span.getSpanContext().getTraceId();
+        if (forwardIfDecided(traceId, span)) {
+            return;
+        }
+        final TraceBuffer buffer;
+        synchronized (this.traces) {
+            buffer = this.traces.computeIfAbsent(traceId, id -> new TraceBuffer());
+        }
+        synchronized (buffer) {
+            if (buffer.decided) {
+                forwardIfDecided(traceId, span); // decided concurrently; the decision was cached before the buffer was marked
+                return;
+            }
+            if (buffer.spans.isEmpty() && forwardIfDecided(traceId, span)) {
+                buffer.decided = true; // new buffer raced with the decision it missed above; discard it
+                removeTrace(traceId, buffer);
+                return;
+            }
+            if (buffer.spans.size() < this.maxSpansPerTrace) {
+                buffer.spans.add(span);
+                this.bufferedSpans.incrementAndGet();
+            } else {
+                this.overflowSpansCounter.increment();
+            }
+            buffer.error |= (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR);
+            buffer.maxLatencyNanos = Math.max(buffer.maxLatencyNanos, span.getLatencyNanos());
+            buffer.exemplar |= Boolean.TRUE.equals(span.getAttribute(ExemplarSpanContext.EXEMPLAR));
+        }
+        final SpanContext parent = span.getParentSpanContext();
+        if (!parent.isValid() || parent.isRemote()) {
+            decide(traceId, buffer); // local root span ended, so the trace is complete in this process
+        }
+        Map.Entry<String, TraceBuffer> oldest;
+        while ((oldest = pollOldestTrace(this.maxTraces, Long.MAX_VALUE)) != null) {
+            decide(oldest.getKey(), oldest.getValue()); // buffer is full, decide with the spans buffered so far
+        }
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        snapshotTraces().forEach(this::decide);
+        return this.delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        this.sweeper.shutdownNow();
+        snapshotTraces().forEach(this::decide);
+        return this.delegate.shutdown();
+    }
+
+    private boolean forwardIfDecided(final String traceId, final ReadableSpan span) {
+        final Boolean kept = this.decisions.getIfPresent(traceId);
+        if (kept == null) {
+            return false;
+        }
+        if (kept) {
+            this.delegate.onEnd(span);
+        } else {
+            this.lateDroppedSpansCounter.increment();
+        }
+        return true;
+    }
+
+    private void decide(final String traceId, final TraceBuffer buffer) {
+        final List<ReadableSpan> spans;
+        final Decision decision;
+        synchronized (buffer) {
+            if (buffer.decided) {
+                return;
+            }
+            decision = buffer.error ? Decision.KEPT_ERROR
+                : (buffer.maxLatencyNanos >= this.latencyThresholdNanos) ? Decision.KEPT_LATENCY
+                : (buffer.exemplar && withinExemplarBudget()) ? Decision.KEPT_EXEMPLAR
+                : sampled(traceId) ? Decision.KEPT_SAMPLED
+                : Decision.DROPPED;
+            this.decisions.put(traceId, decision != Decision.DROPPED); // before marking decided, so late spans find it
+            buffer.decided = true;
+            spans = buffer.spans;
+        }
+        removeTrace(traceId, buffer);
+        this.bufferedSpans.addAndGet(-spans.size());
+        switch (decision) {
+            case KEPT_ERROR -> this.keptErrorCounter.increment();
+            case KEPT_LATENCY -> this.keptLatencyCounter.increment();
+            case KEPT_EXEMPLAR -> this.keptExemplarCounter.increment();
+            case KEPT_SAMPLED -> this.keptSampledCounter.increment();
+            case DROPPED -> this.droppedCounter.increment();
+        }
+        if (decision != Decision.DROPPED) {
+            spans.forEach(this.delegate::onEnd);
+        }
+    }
+
+    // Low 64 bits of the trace ID are random (W3C trace context), so this keeps baseRate of traces, consistently across services
+    private boolean sampled(final String traceId) {
+        return Math.abs(Long.parseUnsignedLong(traceId.substring(16), 16)) < this.baseRateThreshold;
+    }
+
+    // Fixed one second windows; cheaper than a token bucket, and bursts of up to twice the budget across a window boundary are fine
+    private boolean withinExemplarBudget() {
+        final long second = System.nanoTime() / 1_000_000_000L;
+        synchronized (this.exemplarBudgetLock) {
+            if (second != this.exemplarBudgetSecond) {
+                this.exemplarBudgetSecond = second;
+                this.exemplarBudgetUsed = 0;
+            }
+            if (this.exemplarBudgetUsed < this.maxExemplarTracesPerSecond) {
+                this.exemplarBudgetUsed++;
+                return true;
+            }
+        }
+        this.exemplarOverBudgetCounter.increment();
+        return false;
+    }
+
+    // Decided traces are removed from traces, so the insertion order never holds more than the buffered traces
+    private void removeTrace(final String traceId, final TraceBuffer buffer) {
+        synchronized (this.traces) {
+            this.traces.remove(traceId, buffer);
+        }
+    }
+
+    // Removes the oldest trace if there are more than maxTraces, or if it is at least maxAgeNanos old; decide it outside the lock
+    private Map.Entry<String, TraceBuffer> pollOldestTrace(final int maxTraces, final long maxAgeNanos) {
+        synchronized (this.traces) {
+            final Iterator<Map.Entry<String, TraceBuffer>> iterator = this.traces.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            final Map.Entry<String, TraceBuffer> oldest = iterator.next();
+            if ((this.traces.size() <= maxTraces) && (System.nanoTime() - oldest.getValue().createdNanos < maxAgeNanos)) {
+                return null;
+            }
+            iterator.remove();
+            return Map.entry(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private Map<String, TraceBuffer> snapshotTraces() {
+        synchronized (this.traces) {
+            return new LinkedHashMap<>(this.traces);
+        }
+    }
+
+    private void expireOldTraces() {
+        try {
+            Map.Entry<String, TraceBuffer> oldest;
+            while ((oldest = pollOldestTrace(Integer.MAX_VALUE, this.maxTraceAgeNanos)) != null) {
+                decide(oldest.getKey(), oldest.getValue()); // oldest first, so this stops at the first young enough trace
+            }
+        } catch (RuntimeException e) {
+            log.warn("Tail sampling sweep failed", e); // keep the scheduled task alive
+        }
+    }
+
+    private static Counter tracesCounter(final MeterRegistry meterRegistry, final String decision) {
+        return Counter.builder("otel.tail_sampling.traces").description("Traces decided by tail sampling").tags("decision", decision).register(meterRegistry);
+    }
+
+    private static Counter droppedSpansCounter(final MeterRegistry meterRegistry, final String reason) {
+        return Counter.builder("otel.tail_sampling.spans.dropped").description("Spans dropped by tail sampling, in addition to spans of dropped traces").tags("reason", reason).register(meterRegistry);
+    }
+}
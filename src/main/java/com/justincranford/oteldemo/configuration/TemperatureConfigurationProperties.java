@@ -0,0 +1,148 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.temperature")
+@Validated
+@Data
+public class TemperatureConfigurationProperties {
+
+    @Valid
+    private Batch batch = new Batch();
+    @Valid
+    private WriteBehind writeBehind = new WriteBehind();
+    @Valid
+    private GroupCommit groupCommit = new GroupCommit();
+    @Valid
+    private Query query = new Query();
+    @Valid
+    private Partitioning partitioning = new Partitioning();
+    @Valid
+    private Recent recent = new Recent();
+    @Valid
+    private Blocks blocks = new Blocks();
+
+    @Data
+    public static class Batch {
+        // rows per JDBC batch; also used for hibernate.jdbc.batch_size in application.properties
+        @Min(1)
+        private int size = 1000;
+        // lists at least this large bypass the JPA persistence context (no dirty checking, no first-level cache growth)
+        @Min(1)
+        private int bulkThreshold = 1000;
+        // lists at least this large are streamed with PostgreSQL COPY (JDBC batches on H2)
+        @Min(1)
+        private int copyThreshold = 10000;
+    }
+
+    @Data
+    public static class WriteBehind {
+        // false=saveOneTemperature inserts synchronously, true=saveOneTemperature enqueues for a background writer
+        private boolean enabled = false;
+        @Min(1)
+        private int capacity = 10000;
+        // flush when this many readings are queued...
+        @Min(1)
+        private int flushSize = 1000;
+        // ...or when this much time passed since the last flush, whichever comes first
+        @NotNull
+        private Duration flushInterval = Duration.ofSeconds(1);
+        @NotNull
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        // BLOCK only: max wait for free capacity before rejecting
+        @NotNull
+        private Duration blockTimeout = Duration.ofSeconds(5);
+        // max wait for the background writer to drain the queue on shutdown
+        @NotNull
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class GroupCommit {
+        // false=saveOneTemperature commits its own transaction, true=concurrent saveOneTemperature callers share one; ignored if write-behind is enabled
+        private boolean enabled = false;
+        // leader waits this long for more callers to join, which adds up to this much latency per call...
+        @NotNull
+        private Duration window = Duration.ofMillis(2);
+        // ...or until this many are pending, whichever comes first
+        @Min(1)
+        private int maxBatchSize = 1000;
+    }
+
+    @Data
+    public static class Query {
+        @Min(1)
+        private int defaultPageSize = 100;
+        @Min(1)
+        private int maxPageSize = 1000;
+        // rows per DB round trip for GET /temperatures/export
+        @Min(1)
+        private int exportFetchSize = 1000;
+    }
+
+    @Data
+    public static class Partitioning {
+        // PostgreSQL only: range partition temperatures by timestamp; H2 keeps the plain table
+        private boolean enabled = false;
+        @NotNull
+        private PartitionInterval interval = PartitionInterval.DAILY;
+        // number of future partitions to create ahead of time
+        @Min(1)
+        private int premake = 7;
+        // partitions entirely older than this are detached (and dropped, if retentionAction=DROP)
+        @NotNull
+        private Duration retention = Duration.ofDays(90);
+        @NotNull
+        private RetentionAction retentionAction = RetentionAction.DROP;
+        // how often to create future partitions and apply retention
+        @NotNull
+        private Duration maintenanceInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Recent {
+        // in-memory ring buffer of most recent readings; rounded up to a power of 2; 12 bytes per reading
+        @Min(2)
+        private int capacity = 65536;
+    }
+
+    @Data
+    public static class Blocks {
+        // true=periodically move raw temperatures older than sealAfter into compressed blocks (about 5 bytes per reading instead of 60+)
+        private boolean enabled = false;
+        // time range per block; blocks are aligned to the epoch, so this should divide one day
+        @NotNull
+        private Duration duration = Duration.ofHours(1);
+        // raw temperatures younger than this stay in the temperatures table (keyset pagination, IDs)
+        @NotNull
+        private Duration sealAfter = Duration.ofDays(7);
+        // delay between seal runs
+        @NotNull
+        private Duration sealInterval = Duration.ofMinutes(10);
+    }
+
+    public enum PartitionInterval {
+        DAILY,
+        MONTHLY
+    }
+
+    public enum RetentionAction {
+        DETACH, // keep the detached table, e.g. for archiving
+        DROP
+    }
+
+    public enum OverflowPolicy {
+        BLOCK,       // caller waits up to blockTimeout, then rejected
+        DROP_OLDEST, // oldest queued reading is discarded
+        REJECT       // caller gets RejectedExecutionException immediately
+    }
+}
@@ -0,0 +1,24 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+// Only used if spring.threads.virtual.enabled=true and running on Java 21+ (see VirtualThreadConfiguration)
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.threads")
+@Validated
+@Data
+public class ThreadsConfigurationProperties {
+    // virtual threads pinned to their carrier thread at least this long are counted and logged (JFR jdk.VirtualThreadPinned)
+    @NotNull
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+    // max concurrent DB connection holders; 0=Hikari maximum-pool-size. Extra virtual threads wait in FIFO order instead of stampeding the pool
+    @Min(0)
+    private int dbConcurrencyLimit = 0;
+}
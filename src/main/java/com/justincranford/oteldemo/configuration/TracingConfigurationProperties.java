@@ -0,0 +1,68 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.tracing")
+@Validated
+@Data
+public class TracingConfigurationProperties {
+
+    @Valid
+    private TailSampling tailSampling = new TailSampling();
+    @Valid
+    private AdaptiveSampling adaptiveSampling = new AdaptiveSampling();
+
+    @Data
+    public static class TailSampling {
+        // true=buffer spans per trace and export only kept traces; requires management.tracing.sampling.probability=1.0, so every trace reaches the buffer
+        private boolean enabled = false;
+        // keep traces whose local root span took at least this long
+        @NotNull
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        // keep this fraction of the remaining traces (no error, not slow); by trace ID, so every service keeps the same traces
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double baseRate = 0.05;
+        // keep at most this many traces per second because a metric exemplar links to them; further exemplar traces fall back to baseRate
+        @Min(0)
+        private int maxExemplarTracesPerSecond = 10;
+        // memory bound: oldest buffered traces are decided early when this many are buffered
+        @Min(1)
+        private int maxTraces = 10000;
+        // memory bound: further spans of a trace are dropped
+        @Min(1)
+        private int maxSpansPerTrace = 1000;
+        // traces whose local root span hasn't ended after this long are decided with the spans buffered so far
+        @NotNull
+        private Duration maxTraceAge = Duration.ofSeconds(30);
+        // decisions are remembered this long, for spans that end after their local root span (e.g. async work)
+        @NotNull
+        private Duration decisionTtl = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class AdaptiveSampling {
+        // true=head sample each route at about tracesPerSecond, instead of management.tracing.sampling.probability
+        private boolean enabled = false;
+        // per route; routes below this rate are sampled 100%
+        @DecimalMin("0.001")
+        private double tracesPerSecond = 1.0;
+        // probability re-tuning period; the first trace per route per interval is always sampled
+        @NotNull
+        private Duration interval = Duration.ofSeconds(1);
+        // bounded cardinality; further routes, and paths not mapped to a handler, share the "other" budget
+        @Min(1)
+        private int maxRoutes = 100;
+    }
+}
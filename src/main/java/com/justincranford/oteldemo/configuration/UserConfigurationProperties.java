@@ -0,0 +1,29 @@
+package com.justincranford.oteldemo.configuration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration
+@ConfigurationProperties(prefix = "otel.demo.user")
+@Validated
+@Data
+public class UserConfigurationProperties {
+
+    @Valid
+    private Search search = new Search();
+
+    @Data
+    public static class Search {
+        @Min(1)
+        private int defaultLimit = 20;
+        @Min(1)
+        private int maxLimit = 100;
+        // shorter queries can't use trigram indexes
+        @Min(1)
+        private int minQueryLength = 1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.justincranford.oteldemo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+/**
+ * Opt-in with spring.threads.virtual.enabled=true, running on Java 21+ (./gradlew bootRun -PjavaVersion=21).
+ * Spring Boot then runs Tomcat requests, @Scheduled tasks, and @Async / applicationTaskExecutor work on virtual threads.
+ * This adds what Spring Boot doesn't: a DB concurrency limit, and carrier thread pinning detection.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfiguration {
+    @Bean(destroyMethod="close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(final MeterRegistry meterRegistry, final ThreadsConfigurationProperties threadsConfigurationProperties) {
+        final VirtualThreadPinningMonitor virtualThreadPinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, threadsConfigurationProperties.getPinnedThreshold());
+        virtualThreadPinningMonitor.start();
+        return virtualThreadPinningMonitor;
+    }
+
+    // static, so this BeanPostProcessor doesn't force early initialization of this configuration; ObjectProviders defer lookups until the DataSource exists
+    @Bean
+    public static BeanPostProcessor connectionLimitingBeanPostProcessor(final ObjectProvider<ThreadsConfigurationProperties> threadsConfigurationProperties, final ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionLimitingBeanPostProcessor(threadsConfigurationProperties, meterRegistry);
+    }
+
+    // Ordered, so it runs before the unordered OpenTelemetryJdbcConfiguration.MyBeanPostProcessor, and sees the plain HikariDataSource
+    private record ConnectionLimitingBeanPostProcessor(ObjectProvider<ThreadsConfigurationProperties> threadsConfigurationProperties, ObjectProvider<MeterRegistry> meterRegistry) implements BeanPostProcessor, Ordered {
+        @Override
+        public Object postProcessAfterInitialization(@NonNull final Object bean, @NonNull final String beanName) throws BeansException {
+            if (bean instanceof HikariDataSource hikariDataSource) {
+                final int configuredLimit = this.threadsConfigurationProperties.getObject().getDbConcurrencyLimit();
+                final int limit = (configuredLimit > 0) ? configuredLimit : hikariDataSource.getMaximumPoolSize();
+                final ConnectionLimitingDataSource connectionLimitingDataSource = new ConnectionLimitingDataSource(hikariDataSource, limit, hikariDataSource.getConnectionTimeout());
+                final MeterRegistry registry = this.meterRegistry.getObject();
+                Gauge.builder("db.connection.permits.waiting", connectionLimitingDataSource, ConnectionLimitingDataSource::waiting).description("Threads waiting for a DB connection permit").register(registry);
+                Gauge.builder("db.connection.permits.available", connectionLimitingDataSource, ConnectionLimitingDataSource::available).description("Unused DB connection permits").register(registry);
+                log.info("Bean: {}, limited to {} concurrent DB connections for virtual threads", beanName, limit);
+                return connectionLimitingDataSource;
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.justincranford.oteldemo.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams JFR jdk.VirtualThreadPinned events (Java 21+) in-process, e.g. a virtual thread blocking inside a synchronized block
+ * of a JDBC driver or Logback appender, which pins its carrier thread and reduces the effective number of virtual threads.
+ * Metric: jvm.threads.virtual.pinned timer, tagged with the package of the first non-JDK stack frame. Each culprit frame is logged once.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOGGED_FRAMES = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> loggedFrames = ConcurrentHashMap.newKeySet();
+    private RecordingStream recordingStream;
+
+    public void start() {
+        this.recordingStream = new RecordingStream();
+        this.recordingStream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        this.recordingStream.startAsync();
+        log.info("Monitoring virtual thread pinning longer than {}", this.threshold);
+    }
+
+    @Override
+    public void close() {
+        if (this.recordingStream != null) {
+            this.recordingStream.close();
+        }
+    }
+
+    private void onPinned(final RecordedEvent event) {
+        final String frame = culpritFrame(event);
+        Timer.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier thread")
+            .tag("source", sourcePackage(frame))
+            .register(this.meterRegistry)
+            .record(event.getDuration());
+        if ((this.loggedFrames.size() < MAX_LOGGED_FRAMES) && this.loggedFrames.add(frame)) {
+            log.warn("Virtual thread pinned for {} at {}; subsequent pins here are only counted", event.getDuration(), frame);
+        }
+    }
+
+    private static String culpritFrame(final RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (final RecordedFrame frame : event.getStackTrace().getFrames()) {
+            final String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "jdk";
+    }
+
+    // e.g. org.postgresql.core.v3.QueryExecutorImpl.execute:123 -> org.postgresql; bounded cardinality
+    private static String sourcePackage(final String frame) {
+        final String[] parts = frame.split("\\.");
+        return (parts.length < 3) ? frame : parts[0] + "." + parts[1];
+    }
+}
@@ -0,0 +1,35 @@
+package com.justincranford.oteldemo.controller;
+
+import com.justincranford.oteldemo.service.AssetService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/assets")
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.SERVLET) // blocking, so not served by the reactive profile
+@RequiredArgsConstructor
+@Slf4j
+public class AssetController {
+    private final AssetService assetService;
+
+    // e.g. POST /assets/bulk-upsert with body ["pump-1","pump-2"]; returns {"pump-1":"<id>","pump-2":"<id>"}
+    @PostMapping("/bulk-upsert")
+    public Map<String, UUID> bulkUpsert(@RequestBody final List<String> names) {
+        try {
+            return assetService.upsertAssets(names);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -1,71 +1,38 @@
 package com.justincranford.oteldemo.controller;
 
 import com.justincranford.oteldemo.service.TemperatureService;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Gauge;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.observation.Observation;
-import io.micrometer.observation.ObservationRegistry;
-import io.opentelemetry.api.OpenTelemetry;
-import io.opentelemetry.api.metrics.LongCounter;
-import io.opentelemetry.api.metrics.LongUpDownCounter;
-import io.opentelemetry.api.metrics.Meter;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
 
 @RestController
 @RequestMapping("/")
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.SERVLET) // see ReactiveHelloController for the reactive profile
 @RequiredArgsConstructor
 @Slf4j
 public class HelloController {
-    private final OpenTelemetry openTelemetry; // Bean managed by Spring Boot lifecycle
-    private final MeterRegistry meterRegistry;
-    private final ObservationRegistry observationRegistry;
-
-    private final AtomicLong atomicLong = new AtomicLong(0L);
-    private LongCounter upLongCounter;
-    private LongUpDownCounter upLongDownCounter;
-    private Counter upCounter;
-    private Observation observation;
-    private Gauge gauge;
-
+    private final HelloMetrics helloMetrics;
     private final TemperatureService temperatureService;
 
-    @PostConstruct
-    public void postConstruct() {
-        final Meter meter = openTelemetry.getMeterProvider().get(HelloController.class.getCanonicalName());
-
-        this.upLongCounter = meter.counterBuilder("HelloController.upLongCounter").setDescription("HelloController upLongCounter").build();
-        this.upLongDownCounter = meter.upDownCounterBuilder("HelloController.upLongDownCounter").setDescription("HelloController upLongDownCounter").build();
-        this.upCounter = Counter.builder("HelloController.upCounter").description("HelloController.upCounter description").baseUnit("ms").tags("foo", "upCounter").register(this.meterRegistry);
-        this.gauge = Gauge.builder("HelloController.gauge", this, obj -> SECURE_RANDOM.nextInt(0, 100)).description("HelloController.gauge example").baseUnit("celsius").register(this.meterRegistry);
-    }
-
     @GetMapping("/hello")
     public String hello() {
-        final long currentCount = atomicLong.incrementAndGet(); // local metric
+        final long currentCount = helloMetrics.increment();
         return "Hello " + currentCount + "!";
     }
 
     @GetMapping("/hello/telemetry")
     public String helloTelemetry() {
         try (final MDC.MDCCloseable ignored = MDC.putCloseable("Hello Telemetry?", "Is it me you're looking for?")) { // custom MDC field
-            final long currentCount = atomicLong.incrementAndGet(); // local metric
-
-            this.upLongCounter.add(100); // custom metric
-            this.upLongDownCounter.add(SECURE_RANDOM.nextBoolean() ? -1 : 1); // custom metric
-            this.upCounter.increment(); // custom metric
-            this.gauge.measure();
+            final long currentCount = helloMetrics.increment();
+            helloMetrics.recordTelemetry();
 
             IntStream.rangeClosed(1, 2).forEach(temperature -> temperatureService.saveOneTemperature((float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)));
             temperatureService.saveManyTemperatures(IntStream.rangeClosed(1, 10).mapToObj(i -> (float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)).toList());
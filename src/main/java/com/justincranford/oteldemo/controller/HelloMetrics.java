@@ -0,0 +1,51 @@
+package com.justincranford.oteldemo.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+
+// Shared by HelloController (servlet) and ReactiveHelloController (reactive), so both stacks emit identical telemetry for comparison
+@Component
+@RequiredArgsConstructor
+public class HelloMetrics {
+    private final OpenTelemetry openTelemetry; // Bean managed by Spring Boot lifecycle
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong atomicLong = new AtomicLong(0L);
+    private LongCounter upLongCounter;
+    private LongUpDownCounter upLongDownCounter;
+    private Counter upCounter;
+    private Gauge gauge;
+
+    @PostConstruct
+    public void postConstruct() {
+        final Meter meter = openTelemetry.getMeterProvider().get(HelloController.class.getCanonicalName());
+
+        this.upLongCounter = meter.counterBuilder("HelloController.upLongCounter").setDescription("HelloController upLongCounter").build();
+        this.upLongDownCounter = meter.upDownCounterBuilder("HelloController.upLongDownCounter").setDescription("HelloController upLongDownCounter").build();
+        this.upCounter = Counter.builder("HelloController.upCounter").description("HelloController.upCounter description").baseUnit("ms").tags("foo", "upCounter").register(this.meterRegistry);
+        this.gauge = Gauge.builder("HelloController.gauge", this, obj -> SECURE_RANDOM.nextInt(0, 100)).description("HelloController.gauge example").baseUnit("celsius").register(this.meterRegistry);
+    }
+
+    public long increment() {
+        return atomicLong.incrementAndGet(); // local metric
+    }
+
+    public void recordTelemetry() {
+        this.upLongCounter.add(100); // custom metric
+        this.upLongDownCounter.add(SECURE_RANDOM.nextBoolean() ? -1 : 1); // custom metric
+        this.upCounter.increment(); // custom metric
+        this.gauge.measure();
+    }
+}
@@ -0,0 +1,54 @@
+package com.justincranford.oteldemo.controller;
+
+import com.justincranford.oteldemo.service.ReactiveTemperatureService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.IntStream;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+
+/**
+ * Reactive profile counterpart of HelloController: same paths, metrics, and DB writes, but no request thread is blocked.
+ * Trace context follows the pipeline across threads via spring.reactor.context-propagation=auto (see application-reactive.properties).
+ */
+@RestController
+@RequestMapping("/")
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveHelloController {
+    private final HelloMetrics helloMetrics;
+    private final ReactiveTemperatureService reactiveTemperatureService;
+
+    @GetMapping("/hello")
+    public Mono<String> hello() {
+        return Mono.fromSupplier(() -> "Hello " + helloMetrics.increment() + "!");
+    }
+
+    @GetMapping("/hello/telemetry")
+    public Mono<String> helloTelemetry() {
+        return Mono.defer(() -> {
+            final long currentCount = helloMetrics.increment();
+            helloMetrics.recordTelemetry();
+
+            // sequential, like HelloController, so DB work per request is identical
+            return Flux.range(1, 2).concatMap(i -> reactiveTemperatureService.saveOneTemperature((float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)))
+                .thenMany(reactiveTemperatureService.saveManyTemperatures(IntStream.rangeClosed(1, 10).mapToObj(i -> (float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)).toList()))
+                .thenMany(Flux.range(1, 2).concatMap(i -> reactiveTemperatureService.saveOneTemperature((float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F))))
+                .then(Mono.fromSupplier(() -> {
+                    try (final MDC.MDCCloseable ignored = MDC.putCloseable("Hello Telemetry?", "Is it me you're looking for?")) { // custom MDC field, on whichever thread completes the pipeline
+                        log.info("Hello OpenTelemetry {}!", currentCount);
+                        return "Hello OpenTelemetry " + currentCount + "!";
+                    }
+                }));
+        });
+    }
+}
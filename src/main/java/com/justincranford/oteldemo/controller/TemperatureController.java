@@ -0,0 +1,170 @@
+package com.justincranford.oteldemo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.justincranford.oteldemo.service.TemperatureIngestService;
+import com.justincranford.oteldemo.service.TemperatureRingBuffer;
+import com.justincranford.oteldemo.service.TemperatureService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/temperatures")
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.SERVLET) // blocking, so not served by the reactive profile
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureController {
+    private static final int EXPORT_BUFFER_CHARS = 64 * 1024;
+
+    private final TemperatureService temperatureService;
+    private final TemperatureIngestService temperatureIngestService;
+
+    public record IngestResult(long accepted) {
+    }
+
+    enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson", null),
+        CSV("text/csv", "csv", "id,timestamp,celcius\n");
+
+        private final String contentType;
+        private final String fileExtension;
+        private final String header;
+
+        ExportFormat(final String contentType, final String fileExtension, final String header) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+            this.header = header;
+        }
+
+        // hand-written instead of Jackson, to avoid per-row serializer allocations; no values need escaping. id is null for sealed readings
+        void write(final Writer writer, final UUID id, final OffsetDateTime timestamp, final float celcius) throws IOException {
+            if (this == NDJSON) {
+                writer.append("{\"id\":");
+                if (id == null) {
+                    writer.append("null");
+                } else {
+                    writer.append('"').append(id.toString()).append('"');
+                }
+                writer.append(",\"timestamp\":\"").append(timestamp.toString()).append("\",\"celcius\":").append(Float.toString(celcius)).append("}\n");
+            } else {
+                writer.append((id == null) ? "" : id.toString()).append(',').append(timestamp.toString()).append(',').append(Float.toString(celcius)).append('\n');
+            }
+        }
+    }
+
+    // e.g. GET /temperatures?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&limit=500, then repeat with &cursor=<nextCursor> until nextCursor is null
+    @GetMapping
+    public TemperatureService.Page temperatures(
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime from,
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime to,
+        @RequestParam(required=false) final String cursor,
+        @RequestParam(required=false) final Integer limit
+    ) {
+        final TemperatureService.Cursor decodedCursor;
+        try {
+            decodedCursor = (cursor == null) ? null : TemperatureService.Cursor.decode(cursor);
+            if ((decodedCursor != null) && (decodedCursor.timestamp().isBefore(from) || decodedCursor.timestamp().isAfter(to))) {
+                throw new IllegalArgumentException("Cursor is outside [from, to]"); // tampered, or from another range; would also fail on PostgreSQL for out-of-range years
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        return temperatureService.findTemperatures(from, to, decodedCursor, limit);
+    }
+
+    // e.g. GET /temperatures/summary?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z
+    @GetMapping("/summary")
+    public TemperatureService.Summary summary(
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime from,
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime to
+    ) {
+        return temperatureService.summarizeTemperatures(from, to);
+    }
+
+    // e.g. GET /temperatures/recent?n=100
+    @GetMapping("/recent")
+    public List<TemperatureRingBuffer.RecentReading> recent(@RequestParam(defaultValue="100") final int n) {
+        return temperatureService.findRecentTemperatures(n);
+    }
+
+    // e.g. GET /temperatures/recent/stats?windowSeconds=300
+    @GetMapping("/recent/stats")
+    public TemperatureRingBuffer.WindowStats recentStats(@RequestParam(defaultValue="300") final long windowSeconds) {
+        return temperatureService.summarizeRecentTemperatures(windowSeconds);
+    }
+
+    // e.g. GET /temperatures/export?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z&format=csv
+    // Rows are written to the response as the JDBC cursor returns them, so heap use is flat and the first byte goes out before the query finishes
+    @GetMapping("/export")
+    public void export(
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime from,
+        @RequestParam @DateTimeFormat(iso=DateTimeFormat.ISO.DATE_TIME) final OffsetDateTime to,
+        @RequestParam(defaultValue="ndjson") final String format,
+        final HttpServletResponse response
+    ) throws IOException {
+        final ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format " + format, e);
+        }
+        response.setContentType(exportFormat.contentType);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=temperatures." + exportFormat.fileExtension);
+
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), EXPORT_BUFFER_CHARS);
+        if (exportFormat.header != null) {
+            writer.write(exportFormat.header);
+        }
+        final long[] rows = {0L};
+        temperatureService.exportTemperatures(from, to, (id, timestamp, celcius) -> {
+            exportFormat.write(writer, id, timestamp, celcius);
+            if (++rows[0] == 1L) {
+                writer.flush(); // first byte out early; afterwards, flush whenever the buffer fills
+            }
+        });
+        writer.flush();
+        log.debug("Exported {} temperatures as {}", rows[0], exportFormat);
+    }
+
+    // e.g. POST /temperatures/ingest with Content-Type: application/x-ndjson, one {"timestamp":...,"celcius":...} per line
+    @PostMapping(value="/ingest", consumes="application/x-ndjson")
+    public IngestResult ingestNdjson(final HttpServletRequest request) throws IOException {
+        try {
+            return new IngestResult(temperatureIngestService.ingestNdjson(request.getInputStream()));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid NDJSON: " + e.getMessage(), e);
+        }
+    }
+
+    // e.g. POST /temperatures/ingest with Content-Type: application/octet-stream, 12 bytes per reading (int64 epoch millis, float32 celcius, big-endian)
+    @PostMapping(value="/ingest", consumes="application/octet-stream")
+    public IngestResult ingestBinary(final HttpServletRequest request) throws IOException {
+        try {
+            return new IngestResult(temperatureIngestService.ingestBinary(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid binary body: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.justincranford.oteldemo.controller;
+
+import com.justincranford.oteldemo.repository.UserSearchRepository;
+import com.justincranford.oteldemo.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.SERVLET) // blocking, so not served by the reactive profile
+@RequiredArgsConstructor
+@Slf4j
+public class UserController {
+    private final UserService userService;
+
+    // e.g. GET /users/search?q=smi&limit=20
+    @GetMapping("/search")
+    public List<UserSearchRepository.Match> search(@RequestParam final String q, @RequestParam(required=false) final Integer limit) {
+        try {
+            return userService.searchUsers(q, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // e.g. POST /users/bulk-upsert with body ["alice","bob"]; returns {"alice":"<id>","bob":"<id>"}
+    @PostMapping("/bulk-upsert")
+    public Map<String, UUID> bulkUpsert(@RequestBody final List<String> names) {
+        try {
+            return userService.upsertUsers(names);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
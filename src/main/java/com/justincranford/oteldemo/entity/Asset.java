@@ -1,8 +1,10 @@
 package com.justincranford.oteldemo.entity;
 
 import com.justincranford.oteldemo.entity.base.AbstractEntity;
+import com.justincranford.oteldemo.repository.EntityByNameCacheListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +17,7 @@ import lombok.experimental.Accessors;
 
 @Entity
 @Table(name="assets")
+@EntityListeners(EntityByNameCacheListener.class) // keeps the by-name cache in sync
 @Getter
 @Setter
 @RequiredArgsConstructor
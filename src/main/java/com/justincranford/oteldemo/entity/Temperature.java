@@ -3,6 +3,7 @@ package com.justincranford.oteldemo.entity;
 import com.justincranford.oteldemo.entity.base.AbstractEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
@@ -18,7 +19,9 @@ import lombok.experimental.Accessors;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name="temperatures")
+@Table(name="temperatures", indexes={
+    @Index(name="temperatures_timestamp_id_idx", columnList="timestamp, id") // keyset pagination: WHERE (timestamp, id) > (?, ?) ORDER BY timestamp, id
+})
 @Getter
 @Setter
 @RequiredArgsConstructor
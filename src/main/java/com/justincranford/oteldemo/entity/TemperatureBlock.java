@@ -0,0 +1,44 @@
+package com.justincranford.oteldemo.entity;
+
+import com.justincranford.oteldemo.entity.base.AbstractEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+import java.time.OffsetDateTime;
+
+// Sealed, compressed temperatures for [blockStart, blockEnd); rows are written by TemperatureBlockRepository, never loaded or saved via JPA
+@Entity
+@Table(name="temperature_blocks")
+@Getter
+@Setter
+@RequiredArgsConstructor
+@Accessors(fluent=true,chain= true)
+@ToString(callSuper=true,exclude="data")
+@EqualsAndHashCode(callSuper=true)
+public class TemperatureBlock extends AbstractEntity {
+    @Column(nullable=false,updatable=false,unique=true)
+    private OffsetDateTime blockStart;
+
+    @Column(nullable=false,updatable=false)
+    private OffsetDateTime blockEnd;
+
+    @Column(nullable=false)
+    private Integer readingCount;
+
+    @Column(nullable=false)
+    private Float minCelcius;
+
+    @Column(nullable=false)
+    private Float maxCelcius;
+
+    // TemperatureBlockCodec format; bytea on PostgreSQL
+    @Column(nullable=false,length=64 * 1024 * 1024)
+    private byte[] data;
+}
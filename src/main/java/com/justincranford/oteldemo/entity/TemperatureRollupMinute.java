@@ -0,0 +1,16 @@
+package com.justincranford.oteldemo.entity;
+
+import com.justincranford.oteldemo.entity.base.AbstractTemperatureRollup;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Table(name="temperature_rollups_minute")
+@RequiredArgsConstructor
+@ToString(callSuper=true)
+@EqualsAndHashCode(callSuper=true)
+public class TemperatureRollupMinute extends AbstractTemperatureRollup {
+}
@@ -1,8 +1,11 @@
 package com.justincranford.oteldemo.entity;
 
 import com.justincranford.oteldemo.entity.base.AbstractEntity;
+import com.justincranford.oteldemo.repository.EntityByNameCacheListener;
+import com.justincranford.oteldemo.repository.UserNameIndexListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +18,7 @@ import lombok.experimental.Accessors;
 
 @Entity
 @Table(name="users")
+@EntityListeners({UserNameIndexListener.class, EntityByNameCacheListener.class}) // keep the H2 in-process name search index and the by-name cache in sync
 @Getter
 @Setter
 @RequiredArgsConstructor
@@ -4,8 +4,12 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 
 @MappedSuperclass
+@Getter
+@Accessors(fluent=true)
 @SuppressWarnings({"unused"})
 public abstract class AbstractEntity {
     // UUIDv7 is monotonic increasing (i.e. time prefix), similar to Integer-based AUTO_INCREMENT
@@ -0,0 +1,38 @@
+package com.justincranford.oteldemo.entity.base;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+import java.time.OffsetDateTime;
+
+// Pre-aggregated temperatures per time bucket; rows are upserted by TemperatureRollupRepository, never loaded or saved via JPA
+@MappedSuperclass
+@Getter
+@Setter
+@RequiredArgsConstructor
+@Accessors(fluent=true,chain= true)
+@ToString(callSuper=true)
+@EqualsAndHashCode(callSuper=true)
+public abstract class AbstractTemperatureRollup extends AbstractEntity {
+    // UTC start of the bucket (inclusive); end is start plus one minute, hour, or day (exclusive)
+    @Column(nullable=false,updatable=false,unique=true)
+    private OffsetDateTime bucketStart;
+
+    @Column(nullable=false)
+    private Long readingCount;
+
+    @Column(nullable=false)
+    private Float minCelcius;
+
+    @Column(nullable=false)
+    private Float maxCelcius;
+
+    @Column(nullable=false)
+    private Double sumCelcius;
+}
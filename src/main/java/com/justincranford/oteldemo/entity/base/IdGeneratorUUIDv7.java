@@ -22,6 +22,21 @@ import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
 public class IdGeneratorUUIDv7 extends SequenceStyleGenerator {
     @Override
     public UUID generate(SharedSessionContractImplementor session, Object object) {
+        return UUIDv7Generator.generateFromReserve(); // called once per entity, e.g. 1000 times in a saveAll of 1000 entities
+    }
+
+    // Same IDs as Hibernate assigns, for insert paths that bypass Hibernate (e.g. JDBC batch inserts)
+    public static UUID generateUUIDv7() {
+        return UUIDv7Generator.generate();
+    }
+
+    // Contiguous, time-ordered IDs for bulk insert paths (e.g. one block per JDBC batch), instead of one generator call per row
+    public static UUIDv7Generator.IdBlock generateUUIDv7Block(final int count) {
+        return UUIDv7Generator.generateBlock(count);
+    }
+
+    // Previous implementation: one shared SecureRandom call and date objects per ID; kept for benchmark comparison
+    public static UUID generateUUIDv7SharedSecureRandom() {
         final Instant nowUTC = OffsetDateTime.now(ZoneOffset.UTC).toInstant();
         return GUID.v7(nowUTC, SECURE_RANDOM).toUUID();
     }
@@ -0,0 +1,178 @@
+package com.justincranford.oteldemo.entity.base;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * High-throughput UUIDv7 generator (RFC 9562) for many concurrent inserting threads.
+ * <ul>
+ *     <li>unix_ts_ms (48 bits): System.currentTimeMillis(), no date objects</li>
+ *     <li>rand_a (12 bits): counter within the millisecond (RFC 9562 section 6.2, method 1); on overflow the timestamp advances by 1 ms</li>
+ *     <li>rand_b (62 bits): striped entropy pools, each refilled in bulk from its own SecureRandom, instead of one shared SecureRandom per ID</li>
+ * </ul>
+ * IDs from {@link #generate()} and {@link #generateBlock(int)} are strictly increasing within this JVM. That needs one shared CAS on (unix_ts_ms, counter);
+ * it is lock-free and far cheaper than SecureRandom. A block reserves all of its counter values with one CAS, and copies its entropy from one stripe's pool.
+ * IDs from {@link #generateFromReserve()} come from a small per-thread block, so they are strictly increasing per thread, and at most
+ * {@value #RESERVE_MAX_AGE_MILLIS} ms older than IDs of other threads.
+ */
+@NoArgsConstructor(access=AccessLevel.PRIVATE)
+public final class UUIDv7Generator {
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_RFC = 0x8000000000000000L;
+    private static final int POOL_BYTES = 4096; // 512 IDs per SecureRandom call
+    private static final int RESERVE_SIZE = 64;
+    private static final long RESERVE_MAX_AGE_MILLIS = 10L; // older reserves are discarded, so idle threads don't hand out stale timestamps
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong(); // (unix_ts_ms << 12) | counter
+    private static final EntropyStripe[] STRIPES = newStripes(Runtime.getRuntime().availableProcessors() * 4);
+    private static final int STRIPE_MASK = STRIPES.length - 1;
+    private static final ThreadLocal<IdBlock> RESERVES = new ThreadLocal<>();
+
+    public static UUID generate() {
+        return newUUID(reserve(1), stripe().nextLong());
+    }
+
+    /**
+     * Contiguous, time-ordered block of IDs, e.g. one per JDBC batch. Large blocks advance unix_ts_ms ahead of the clock by count / 4096 ms.
+     */
+    public static IdBlock generateBlock(final int count) {
+        final byte[] random = new byte[count * Long.BYTES];
+        stripe().nextBytes(random); // from the pool, so small blocks (e.g. single saves) don't call SecureRandom each time
+        return new IdBlock(reserve(count), count, random);
+    }
+
+    /**
+     * For callers that generate one ID at a time in bursts, e.g. Hibernate persisting each entity of a saveAll.
+     * A thread's reserve starts at 1 and doubles (up to {@value #RESERVE_SIZE}) each time the thread uses it up; an expired reserve is replaced by one of the same size.
+     * So threads inserting one entity now and then burn few counter values (4096 per ms) on IDs they never use, and bursts keep their reserve size.
+     * Entropy comes from the stripe pools either way, so small reserves don't cost a SecureRandom call per ID.
+     */
+    public static UUID generateFromReserve() {
+        IdBlock reserve = RESERVES.get();
+        final boolean expired = (reserve != null) && ((System.currentTimeMillis() - reserve.firstMillis()) > RESERVE_MAX_AGE_MILLIS);
+        if ((reserve == null) || expired || !reserve.hasNext()) {
+            final int size = (reserve == null) ? 1 : expired ? reserve.count : Math.min(reserve.count * 2, RESERVE_SIZE);
+            reserve = generateBlock(size);
+            RESERVES.set(reserve);
+        }
+        return reserve.next();
+    }
+
+    // returns the first of count consecutive (unix_ts_ms << 12) | counter values
+    private static long reserve(final int count) {
+        final long now = System.currentTimeMillis() << COUNTER_BITS;
+        while (true) {
+            final long last = LAST_TIMESTAMP_AND_COUNTER.get();
+            final long first = Math.max(now, last + 1L);
+            if (LAST_TIMESTAMP_AND_COUNTER.compareAndSet(last, first + count - 1L)) {
+                return first;
+            }
+        }
+    }
+
+    private static UUID newUUID(final long timestampAndCounter, final long random) {
+        final long mostSignificantBits = ((timestampAndCounter >>> COUNTER_BITS) << 16) | VERSION_7 | (timestampAndCounter & ((1L << COUNTER_BITS) - 1L));
+        return new UUID(mostSignificantBits, (random & VARIANT_MASK) | VARIANT_RFC);
+    }
+
+    // Random stripe per call: no thread ID (Thread.getId() is deprecated since Java 19) and no per-thread state, which suits short-lived virtual threads
+    private static EntropyStripe stripe() {
+        return STRIPES[ThreadLocalRandom.current().nextInt() & STRIPE_MASK];
+    }
+
+    /**
+     * Contiguous block of reserved IDs; IDs are created on {@link #next()}. Not thread safe.
+     */
+    public static final class IdBlock {
+        private final long firstTimestampAndCounter;
+        private final int count;
+        private final byte[] random;
+        private int next = 0;
+
+        private IdBlock(final long firstTimestampAndCounter, final int count, final byte[] random) {
+            this.firstTimestampAndCounter = firstTimestampAndCounter;
+            this.count = count;
+            this.random = random;
+        }
+
+        public boolean hasNext() {
+            return this.next < this.count;
+        }
+
+        public UUID next() {
+            if (this.next == this.count) {
+                throw new NoSuchElementException("ID block exhausted after " + this.count + " IDs");
+            }
+            final UUID id = newUUID(this.firstTimestampAndCounter + this.next, (long) LONG_VIEW.get(this.random, this.next * Long.BYTES));
+            this.next++;
+            return id;
+        }
+
+        private long firstMillis() {
+            return this.firstTimestampAndCounter >>> COUNTER_BITS;
+        }
+    }
+
+    private static EntropyStripe[] newStripes(final int minimum) {
+        final EntropyStripe[] stripes = new EntropyStripe[Integer.highestOneBit(Math.max(1, minimum - 1)) << 1]; // power of 2
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new EntropyStripe();
+        }
+        return stripes;
+    }
+
+    // ReentrantLock instead of synchronized, so a virtual thread refilling the pool doesn't pin its carrier thread
+    private static final class EntropyStripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom secureRandom = new SecureRandom();
+        private final byte[] pool = new byte[POOL_BYTES];
+        private int position = POOL_BYTES; // empty; filled on first use
+
+        // Copies from the pool, refilling it as needed; i.e. one SecureRandom call per POOL_BYTES, regardless of request sizes
+        private void nextBytes(final byte[] bytes) {
+            this.lock.lock();
+            try {
+                for (int offset = 0; offset < bytes.length; ) {
+                    if (this.position == POOL_BYTES) {
+                        this.secureRandom.nextBytes(this.pool);
+                        this.position = 0;
+                    }
+                    final int length = Math.min(bytes.length - offset, POOL_BYTES - this.position);
+                    System.arraycopy(this.pool, this.position, bytes, offset, length);
+                    this.position += length;
+                    offset += length;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private long nextLong() {
+            this.lock.lock();
+            try {
+                if (this.position == POOL_BYTES) {
+                    this.secureRandom.nextBytes(this.pool);
+                    this.position = 0;
+                }
+                final long value = (long) LONG_VIEW.get(this.pool, this.position);
+                this.position += Long.BYTES;
+                return value;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
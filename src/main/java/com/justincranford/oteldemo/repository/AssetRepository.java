@@ -0,0 +1,14 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.Asset;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@SuppressWarnings({"unused"})
+public interface AssetRepository extends CrudRepository<Asset, UUID> {
+    Optional<Asset> findByName(String caseSensitiveName);
+}
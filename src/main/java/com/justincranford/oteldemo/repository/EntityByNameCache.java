@@ -0,0 +1,97 @@
+package com.justincranford.oteldemo.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.justincranford.oteldemo.configuration.CacheConfigurationProperties;
+import com.justincranford.oteldemo.entity.base.AbstractEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of entities by unique name, e.g. in front of UserRepository.findByName.
+ * <ul>
+ *     <li>Bounded by maxSize (W-TinyLFU eviction), and by ttl (found) or negativeTtl (not found, i.e. negative caching)</li>
+ *     <li>One loader per name; concurrent misses for the same name wait for it instead of all querying the DB (no stampede)</li>
+ *     <li>Invalidated after commit by {@link EntityByNameCacheListener} when an entity is saved or removed (i.e. its @Version changes),
+ *         including its previous name if it was renamed</li>
+ *     <li>Micrometer metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size, tagged cache=&lt;name&gt;</li>
+ * </ul>
+ * A load racing with a commit can cache the pre-commit entity; ttl bounds how long.
+ */
+@Slf4j
+public class EntityByNameCache<T extends AbstractEntity> {
+    private final Class<T> entityClass;
+    private final Function<T, String> nameOf;
+    private final Cache<String, Optional<T>> cache;
+    private final Map<UUID, String> cachedNames = new ConcurrentHashMap<>(); // entity ID -> cached name, to evict the old name on rename
+
+    public EntityByNameCache(final String cacheName, final Class<T> entityClass, final Function<T, String> nameOf, final CacheConfigurationProperties.ByName properties, final MeterRegistry meterRegistry) {
+        this.entityClass = entityClass;
+        this.nameOf = nameOf;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfter(new Expiry<String, Optional<T>>() {
+                @Override
+                public long expireAfterCreate(final String name, final Optional<T> entity, final long currentTime) {
+                    return (entity.isPresent() ? properties.getTtl() : properties.getNegativeTtl()).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(final String name, final Optional<T> entity, final long currentTime, final long currentDuration) {
+                    return expireAfterCreate(name, entity, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(final String name, final Optional<T> entity, final long currentTime, final long currentDuration) {
+                    return currentDuration; // reads don't extend lifetime
+                }
+            })
+            .removalListener((String name, Optional<T> entity, RemovalCause cause) -> {
+                if ((name != null) && (entity != null) && entity.isPresent()) {
+                    this.cachedNames.remove(entity.get().id(), name); // only if not re-cached under a new name meanwhile
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, cacheName);
+    }
+
+    public Optional<T> findByName(final String name, final Function<String, Optional<T>> loader) {
+        return this.cache.get(name, key -> {
+            final Optional<T> entity = loader.apply(key);
+            entity.ifPresent(found -> this.cachedNames.put(found.id(), key));
+            return entity;
+        });
+    }
+
+    // Evicts the name (may be negatively cached), and the entity's previously cached name if it was renamed
+    public void evict(final UUID id, final String name) {
+        final String previousName = (id == null) ? null : this.cachedNames.remove(id);
+        if (previousName != null) {
+            this.cache.invalidate(previousName);
+        }
+        this.cache.invalidate(name);
+        log.trace("Evicted {} {} {} from cache", this.entityClass.getSimpleName(), id, name);
+    }
+
+    public boolean supports(final Object entity) {
+        return this.entityClass.isInstance(entity);
+    }
+
+    // Captures ID and name as they are now, for eviction after commit
+    public Runnable evictionOf(final Object entity) {
+        final T typedEntity = this.entityClass.cast(entity);
+        final UUID id = typedEntity.id();
+        final String name = this.nameOf.apply(typedEntity);
+        return () -> evict(id, name);
+    }
+}
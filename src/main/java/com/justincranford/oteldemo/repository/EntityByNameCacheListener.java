@@ -0,0 +1,27 @@
+package com.justincranford.oteldemo.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import static com.justincranford.oteldemo.util.TransactionUtil.afterCommit;
+
+// JPA entity listener; Spring Boot's Hibernate bean container injects all EntityByNameCache beans. Evicts after commit, so rollbacks keep cached entries
+@RequiredArgsConstructor
+public class EntityByNameCacheListener {
+    private final List<EntityByNameCache<?>> entityByNameCaches;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(final Object entity) {
+        for (final EntityByNameCache<?> entityByNameCache : this.entityByNameCaches) {
+            if (entityByNameCache.supports(entity)) {
+                afterCommit(entityByNameCache.evictionOf(entity));
+            }
+        }
+    }
+}
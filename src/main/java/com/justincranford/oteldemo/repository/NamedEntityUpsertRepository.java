@@ -0,0 +1,109 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import com.justincranford.oteldemo.entity.base.UUIDv7Generator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based bulk upsert of entities whose only business column is a unique name (i.e. User, Asset).
+ * Each chunk of names is one statement with array parameters, instead of one SELECT plus one INSERT or UPDATE per entity.
+ * Existing rows get version + 1 (same as a JPA update), new rows get version 0 and a UUIDv7 ID from one ID block.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NamedEntityUpsertRepository {
+    private static final int MAX_NAME_LENGTH = 100; // same as @Column(length=100) of User.name and Asset.name
+    private static final int CHUNK_SIZE = 10_000; // arrays are one bind parameter each, so this only bounds per-statement memory and lock duration
+    private static final String UPSERT_SQL_POSTGRESQL = """
+        INSERT INTO %1$s AS t (id, version, name) SELECT s.id, 0, s.name FROM unnest(?::uuid[], ?::text[]) AS s(id, name)
+        ON CONFLICT (name) DO UPDATE SET version = t.version + 1
+        RETURNING t.id, t.name""";
+    private static final String UPSERT_SQL_H2 = """
+        MERGE INTO %1$s t USING (SELECT C1 AS id, C2 AS name FROM UNNEST(CAST(? AS UUID ARRAY), CAST(? AS VARCHAR ARRAY))) s ON t.name = s.name
+        WHEN MATCHED THEN UPDATE SET version = t.version + 1
+        WHEN NOT MATCHED THEN INSERT (id, version, name) VALUES (s.id, 0, s.name)""";
+    private static final String SELECT_IDS_SQL_H2 = "SELECT id, name FROM %1$s WHERE name = ANY(?)"; // H2 MERGE has no RETURNING
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDriver databaseDriver;
+
+    @Getter
+    @Accessors(fluent=true)
+    public enum Table {
+        USERS("users"),
+        ASSETS("assets");
+
+        private final String tableName;
+
+        Table(final String tableName) {
+            this.tableName = tableName;
+        }
+    }
+
+    /**
+     * @param names duplicates are ignored
+     * @return name to ID of every upserted row, inserted or updated, in input order
+     * @throws IllegalArgumentException if any name is null, blank, or too long; nothing is upserted
+     */
+    public Map<String, UUID> upsertNames(final Table table, final List<String> names) {
+        for (int i = 0; i < names.size(); i++) {
+            final String name = names.get(i);
+            if ((name == null) || name.isBlank() || (name.length() > MAX_NAME_LENGTH)) {
+                throw new IllegalArgumentException("Name " + i + " must be 1 to " + MAX_NAME_LENGTH + " characters, and not blank");
+            }
+        }
+        final List<String> distinctNames = new ArrayList<>(new LinkedHashSet<>(names)); // ON CONFLICT can't update the same row twice in one statement
+        final Map<String, UUID> ids = new LinkedHashMap<>();
+        distinctNames.forEach(name -> ids.put(name, null)); // input order
+        Collections.sort(distinctNames); // rows are locked in array order, so concurrent upserts of overlapping names lock them in the same order (no deadlocks)
+        for (int from = 0; from < distinctNames.size(); from += CHUNK_SIZE) {
+            upsertChunk(table, distinctNames.subList(from, Math.min(from + CHUNK_SIZE, distinctNames.size())), ids);
+        }
+        return ids;
+    }
+
+    private void upsertChunk(final Table table, final List<String> names, final Map<String, UUID> ids) {
+        final UUIDv7Generator.IdBlock idBlock = IdGeneratorUUIDv7.generateUUIDv7Block(names.size()); // IDs of conflicting names go unused
+        final UUID[] newIds = new UUID[names.size()];
+        for (int i = 0; i < newIds.length; i++) {
+            newIds[i] = idBlock.next();
+        }
+        final String[] nameArray = names.toArray(new String[0]);
+        final RowCallbackHandler idCollector = resultSet -> ids.put(resultSet.getString(2), resultSet.getObject(1, UUID.class));
+        if (this.databaseDriver == DatabaseDriver.POSTGRESQL) {
+            this.jdbcTemplate.query(connection -> {
+                final PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_SQL_POSTGRESQL.formatted(table.tableName()));
+                preparedStatement.setArray(1, connection.createArrayOf("uuid", newIds));
+                preparedStatement.setArray(2, connection.createArrayOf("text", nameArray));
+                return preparedStatement;
+            }, idCollector);
+        } else {
+            this.jdbcTemplate.update(connection -> {
+                final PreparedStatement preparedStatement = connection.prepareStatement(UPSERT_SQL_H2.formatted(table.tableName()));
+                preparedStatement.setArray(1, connection.createArrayOf("UUID", newIds));
+                preparedStatement.setArray(2, connection.createArrayOf("VARCHAR", nameArray));
+                return preparedStatement;
+            });
+            this.jdbcTemplate.query(connection -> {
+                final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_IDS_SQL_H2.formatted(table.tableName()));
+                preparedStatement.setArray(1, connection.createArrayOf("VARCHAR", nameArray));
+                return preparedStatement;
+            }, idCollector);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.configuration.ReactiveConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import com.justincranford.oteldemo.entity.base.UUIDv7Generator;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the JDBC write path in TemperatureWriter: raw INSERTs and rollup upserts in one R2DBC transaction.
+ * The R2DBC pool is private, not a bean, because a ConnectionFactory bean disables Spring Boot's DataSource auto-configuration,
+ * and JPA, JdbcTemplate, and scheduled tasks still use JDBC. Both pools connect to the same database (spring.datasource.url).
+ */
+@Repository
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveTemperatureRepository implements DisposableBean {
+    private static final String INSERT_SQL = nativePlaceholders(TemperatureRepositoryCustomImpl.INSERT_SQL);
+
+    private final TemperatureRollupRepository temperatureRollupRepository;
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveTemperatureRepository(
+        final DataSourceProperties dataSourceProperties,
+        final DatabaseDriver databaseDriver,
+        final TemperatureRollupRepository temperatureRollupRepository,
+        final ReactiveConfigurationProperties reactiveConfigurationProperties
+    ) {
+        this.temperatureRollupRepository = temperatureRollupRepository;
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory(dataSourceProperties, databaseDriver))
+            .maxSize(reactiveConfigurationProperties.getPoolMaxSize())
+            .build());
+        this.databaseClient = DatabaseClient.create(this.connectionPool);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(this.connectionPool));
+        log.info("R2DBC pool max size: {}, database: {}", reactiveConfigurationProperties.getPoolMaxSize(), databaseDriver);
+    }
+
+    /**
+     * Insert temperatures and update rollups in one transaction. Completes after commit.
+     *
+     * @return number of raw rows inserted
+     */
+    public Mono<Long> write(final List<Temperature> temperatures) {
+        if (temperatures.isEmpty()) {
+            return Mono.just(0L);
+        }
+        final Mono<Long> inserts = this.databaseClient.inConnection(connection -> {
+            final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(temperatures.size());
+            final Statement statement = connection.createStatement(INSERT_SQL);
+            for (int index = 0; index < temperatures.size(); index++) {
+                if (index > 0) {
+                    statement.add(); // R2DBC batch: one execution, many binding sets
+                }
+                final Temperature temperature = temperatures.get(index);
+                statement.bind(0, ids.next()).bind(1, 0).bind(2, temperature.timestamp()).bind(3, temperature.celcius());
+            }
+            return rowsUpdated(statement);
+        });
+        final Flux<Long> rollups = Flux.fromArray(TemperatureRollupRepository.Granularity.values()).concatMap(granularity -> this.databaseClient.inConnection(connection -> {
+            final List<TemperatureRollupRepository.Bucket> buckets = this.temperatureRollupRepository.aggregate(granularity, temperatures);
+            final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(buckets.size()); // only used by rows that get inserted
+            final Statement statement = connection.createStatement(nativePlaceholders(this.temperatureRollupRepository.upsertSql(granularity)));
+            for (int index = 0; index < buckets.size(); index++) {
+                if (index > 0) {
+                    statement.add();
+                }
+                final TemperatureRollupRepository.Bucket bucket = buckets.get(index);
+                statement.bind(0, ids.next()).bind(1, bucket.bucketStart()).bind(2, bucket.count()).bind(3, bucket.min()).bind(4, bucket.max()).bind(5, bucket.sum());
+            }
+            return rowsUpdated(statement);
+        }));
+        return this.transactionalOperator.transactional(inserts.flatMap(inserted -> rollups.then(Mono.just(inserted))));
+    }
+
+    @Override
+    public void destroy() {
+        this.connectionPool.dispose();
+    }
+
+    private static Mono<Long> rowsUpdated(final Statement statement) {
+        return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated).reduce(0L, Long::sum);
+    }
+
+    // Reuse the JDBC SQL; PostgreSQL and H2 R2DBC drivers both use $1, $2, ... instead of ?
+    static String nativePlaceholders(final String sql) {
+        final StringBuilder nativeSql = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int index = 0; index < sql.length(); index++) {
+            final char c = sql.charAt(index);
+            if (c == '?') {
+                nativeSql.append('$').append(++parameter);
+            } else {
+                nativeSql.append(c);
+            }
+        }
+        return nativeSql.toString();
+    }
+
+    // e.g. jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1 or jdbc:postgresql://localhost:5432/postgresqlDatabase?reWriteBatchedInserts=true
+    private static ConnectionFactory connectionFactory(final DataSourceProperties dataSourceProperties, final DatabaseDriver databaseDriver) {
+        final String jdbcUrl = dataSourceProperties.determineUrl();
+        if (databaseDriver == DatabaseDriver.H2) {
+            return new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring("jdbc:h2:".length())) // same embedded database as JDBC, if in the same JVM
+                .username(dataSourceProperties.determineUsername())
+                .password(dataSourceProperties.determinePassword())
+                .build());
+        }
+        final int queryStart = jdbcUrl.indexOf('?'); // JDBC driver options (e.g. reWriteBatchedInserts) aren't R2DBC options
+        final String r2dbcUrl = "r2dbc:" + jdbcUrl.substring("jdbc:".length(), (queryStart < 0) ? jdbcUrl.length() : queryStart);
+        return ConnectionFactories.get(ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+            .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+            .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+            .build());
+    }
+}
@@ -0,0 +1,239 @@
+package com.justincranford.oteldemo.repository;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gorilla-style compression of (epoch micros, celcius) points, as described in "Gorilla: A Fast, Scalable, In-Memory Time Series Database" (VLDB 2015).
+ * Timestamps are delta-of-delta encoded, and floats are XOR encoded against the previous float, both into a bit stream.
+ * Regular sample intervals and slowly changing values cost a few bits per point, instead of about 60 bytes per row plus index entries.
+ * <p>
+ * Format: version (1 byte), point count (int32), then the bit stream. First point is raw (64 bit micros, 32 bit float); each later point is:
+ * <ul>
+ *     <li>delta-of-delta: '0'=0, '10'+12 bits, '110'+20 bits, '1110'+32 bits, '1111'+64 bits (two's complement micros)</li>
+ *     <li>XOR with previous float: '0'=same value, '10'+meaningful bits in previous window, '11'+5 bits leading zeros+5 bits length-1+meaningful bits</li>
+ * </ul>
+ * Bucket widths differ from the paper's (7/9/12/32 bits of seconds), because timestamps here are micros with sub-millisecond jitter.
+ */
+@NoArgsConstructor(access=AccessLevel.PRIVATE)
+public final class TemperatureBlockCodec {
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+    private static final int[] DELTA_OF_DELTA_BITS = {12, 20, 32};
+
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long epochMicros, float celcius) throws IOException;
+    }
+
+    /**
+     * Append-only encoder; memory is the compressed size, so a block can be encoded while streaming rows from the DB. Not thread safe.
+     */
+    public static final class Encoder {
+        private final BitWriter bitWriter = new BitWriter();
+        private int count = 0;
+        private long previousTimestamp = 0L;
+        private long previousDelta = 0L;
+        private int previousFloatBits = 0;
+        private int previousLeading = Integer.MAX_VALUE; // forces a new window for the first non-zero XOR
+        private int previousTrailing = 0;
+        private float min = Float.POSITIVE_INFINITY;
+        private float max = Float.NEGATIVE_INFINITY;
+
+        public void append(final long epochMicros, final float celcius) {
+            final int floatBits = Float.floatToRawIntBits(celcius);
+            if (this.count == 0) {
+                this.bitWriter.write(epochMicros, Long.SIZE);
+                this.bitWriter.write(floatBits, Integer.SIZE);
+            } else {
+                final long delta = epochMicros - this.previousTimestamp;
+                writeDeltaOfDelta(delta - this.previousDelta);
+                this.previousDelta = delta;
+                writeXor(floatBits ^ this.previousFloatBits);
+            }
+            this.previousTimestamp = epochMicros;
+            this.previousFloatBits = floatBits;
+            this.min = Math.min(this.min, celcius);
+            this.max = Math.max(this.max, celcius);
+            this.count++;
+        }
+
+        public int count() {
+            return this.count;
+        }
+
+        public float min() {
+            return this.min;
+        }
+
+        public float max() {
+            return this.max;
+        }
+
+        public byte[] toByteArray() {
+            final byte[] bits = this.bitWriter.toByteArray();
+            return ByteBuffer.allocate(HEADER_BYTES + bits.length).put(VERSION).putInt(this.count).put(bits).array();
+        }
+
+        private void writeDeltaOfDelta(final long deltaOfDelta) {
+            if (deltaOfDelta == 0L) {
+                this.bitWriter.write(0L, 1);
+                return;
+            }
+            for (int bucket = 0; bucket < DELTA_OF_DELTA_BITS.length; bucket++) {
+                final int bits = DELTA_OF_DELTA_BITS[bucket];
+                if ((deltaOfDelta >= -(1L << (bits - 1))) && (deltaOfDelta < (1L << (bits - 1)))) {
+                    this.bitWriter.write((1L << (bucket + 2)) - 2L, bucket + 2); // '10', '110', '1110'
+                    this.bitWriter.write(deltaOfDelta, bits);
+                    return;
+                }
+            }
+            this.bitWriter.write(0b1111L, 4);
+            this.bitWriter.write(deltaOfDelta, Long.SIZE);
+        }
+
+        private void writeXor(final int xor) {
+            if (xor == 0) {
+                this.bitWriter.write(0L, 1);
+                return;
+            }
+            final int leading = Integer.numberOfLeadingZeros(xor);
+            final int trailing = Integer.numberOfTrailingZeros(xor);
+            if ((leading >= this.previousLeading) && (trailing >= this.previousTrailing)) {
+                this.bitWriter.write(0b10L, 2);
+                this.bitWriter.write(xor >>> this.previousTrailing, Integer.SIZE - this.previousLeading - this.previousTrailing);
+            } else {
+                final int meaningful = Integer.SIZE - leading - trailing;
+                this.bitWriter.write(0b11L, 2);
+                this.bitWriter.write(leading, 5);
+                this.bitWriter.write(meaningful - 1, 5);
+                this.bitWriter.write(xor >>> trailing, meaningful);
+                this.previousLeading = leading;
+                this.previousTrailing = trailing;
+            }
+        }
+    }
+
+    public static int count(final byte[] block) {
+        return ByteBuffer.wrap(block).getInt(1);
+    }
+
+    /**
+     * Decode all points of a block, in encoding order, without materializing them.
+     *
+     * @return number of points decoded
+     * @throws IllegalArgumentException if the block has an unknown format version
+     */
+    public static int decode(final byte[] block, final PointConsumer consumer) throws IOException {
+        if (block.length < HEADER_BYTES || block[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported temperature block format");
+        }
+        final int count = count(block);
+        final BitReader bitReader = new BitReader(block, HEADER_BYTES);
+        long timestamp = 0L;
+        long delta = 0L;
+        int floatBits = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int index = 0; index < count; index++) {
+            if (index == 0) {
+                timestamp = bitReader.read(Long.SIZE);
+                floatBits = (int) bitReader.read(Integer.SIZE);
+            } else {
+                delta += readDeltaOfDelta(bitReader);
+                timestamp += delta;
+                if (bitReader.read(1) == 1L) {
+                    if (bitReader.read(1) == 1L) {
+                        leading = (int) bitReader.read(5);
+                        final int meaningful = (int) bitReader.read(5) + 1;
+                        trailing = Integer.SIZE - leading - meaningful;
+                    }
+                    floatBits ^= (int) (bitReader.read(Integer.SIZE - leading - trailing) << trailing);
+                }
+            }
+            consumer.accept(timestamp, Float.intBitsToFloat(floatBits));
+        }
+        return count;
+    }
+
+    private static long readDeltaOfDelta(final BitReader bitReader) {
+        int ones = 0;
+        while ((ones < 4) && (bitReader.read(1) == 1L)) {
+            ones++;
+        }
+        if (ones == 0) {
+            return 0L;
+        } else if (ones == 4) {
+            return bitReader.read(Long.SIZE);
+        }
+        final int bits = DELTA_OF_DELTA_BITS[ones - 1];
+        return (bitReader.read(bits) << (Long.SIZE - bits)) >> (Long.SIZE - bits); // sign extend
+    }
+
+    // Most significant bit first
+    private static final class BitWriter {
+        private byte[] bytes = new byte[256];
+        private int size = 0;
+        private int current = 0;
+        private int currentBits = 0;
+
+        // low bits of value
+        private void write(final long value, final int bits) {
+            int remaining = bits;
+            while (remaining > 0) {
+                final int n = Math.min(8 - this.currentBits, remaining);
+                this.current = (this.current << n) | (int) ((value >>> (remaining - n)) & ((1L << n) - 1L));
+                this.currentBits += n;
+                remaining -= n;
+                if (this.currentBits == 8) {
+                    if (this.size == this.bytes.length) {
+                        this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+                    }
+                    this.bytes[this.size++] = (byte) this.current;
+                    this.current = 0;
+                    this.currentBits = 0;
+                }
+            }
+        }
+
+        private byte[] toByteArray() {
+            final byte[] result = Arrays.copyOf(this.bytes, this.size + ((this.currentBits == 0) ? 0 : 1));
+            if (this.currentBits > 0) {
+                result[this.size] = (byte) (this.current << (8 - this.currentBits)); // zero padded
+            }
+            return result;
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] bytes;
+        private int position;
+        private int current = 0;
+        private int currentBits = 0;
+
+        private BitReader(final byte[] bytes, final int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private long read(final int bits) {
+            long value = 0L;
+            int remaining = bits;
+            while (remaining > 0) {
+                if (this.currentBits == 0) {
+                    this.current = this.bytes[this.position++] & 0xFF;
+                    this.currentBits = 8;
+                }
+                final int n = Math.min(this.currentBits, remaining);
+                value = (value << n) | ((this.current >>> (this.currentBits - n)) & ((1 << n) - 1));
+                this.currentBits -= n;
+                remaining -= n;
+            }
+            return value;
+        }
+    }
+}
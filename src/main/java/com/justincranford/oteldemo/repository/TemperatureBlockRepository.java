@@ -0,0 +1,161 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compressed temperature blocks (see {@link TemperatureBlockCodec}) for sealed time ranges, and moving raw temperatures into them.
+ * Readings decoded from blocks have no ID; IDs only exist for raw temperatures.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TemperatureBlockRepository {
+    // DELETE and read back in one statement, so rows inserted concurrently into the range are either sealed or kept, never lost
+    private static final String DELETE_RAW_SQL_POSTGRESQL = """
+        WITH deleted AS (DELETE FROM temperatures WHERE timestamp >= ? AND timestamp < ? RETURNING timestamp, celcius)
+        SELECT timestamp, celcius FROM deleted ORDER BY timestamp""";
+    private static final String DELETE_RAW_SQL_H2 = "SELECT timestamp, celcius FROM OLD TABLE (DELETE FROM temperatures WHERE timestamp >= ? AND timestamp < ?) ORDER BY timestamp";
+    private static final String OLDEST_RAW_SQL = "SELECT MIN(timestamp) FROM temperatures WHERE timestamp < ?";
+    private static final String SELECT_BLOCK_SQL = "SELECT data FROM temperature_blocks WHERE block_start = ? FOR UPDATE";
+    private static final String INSERT_BLOCK_SQL = """
+        INSERT INTO temperature_blocks (id, version, block_start, block_end, reading_count, min_celcius, max_celcius, data) VALUES (?, 0, ?, ?, ?, ?, ?, ?)""";
+    private static final String UPDATE_BLOCK_SQL = """
+        UPDATE temperature_blocks SET version = version + 1, reading_count = ?, min_celcius = ?, max_celcius = ?, data = ? WHERE block_start = ?""";
+    private static final String SELECT_RANGE_SQL = "SELECT data FROM temperature_blocks WHERE block_end > ? AND block_start < ? ORDER BY block_start";
+    private static final int RANGE_FETCH_SIZE = 4; // blocks are large; fetch a few at a time
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDriver databaseDriver;
+
+    // null if there are no raw temperatures before the cutoff
+    public OffsetDateTime findOldestRawTimestamp(final OffsetDateTime before) {
+        return this.jdbcTemplate.queryForObject(OLDEST_RAW_SQL, OffsetDateTime.class, before);
+    }
+
+    // null if there is no block for blockStart; locks the block row until the end of the transaction
+    public byte[] findBlockForUpdate(final OffsetDateTime blockStart) {
+        final List<byte[]> blocks = this.jdbcTemplate.query(SELECT_BLOCK_SQL, (resultSet, rowNum) -> resultSet.getBytes(1), blockStart);
+        return blocks.isEmpty() ? null : blocks.get(0);
+    }
+
+    /**
+     * Delete raw temperatures in [from, to), passing each deleted reading to the consumer in timestamp order.
+     *
+     * @return number of rows deleted
+     */
+    public long deleteRawRange(final OffsetDateTime from, final OffsetDateTime to, final TemperatureBlockCodec.PointConsumer consumer) {
+        final String sql = (this.databaseDriver == DatabaseDriver.POSTGRESQL) ? DELETE_RAW_SQL_POSTGRESQL : DELETE_RAW_SQL_H2;
+        final long[] rows = {0L};
+        this.jdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+            try {
+                consumer.accept(toEpochMicros(resultSet.getObject(1, OffsetDateTime.class)), resultSet.getFloat(2));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        }, from, to);
+        return rows[0];
+    }
+
+    public void insertBlock(final OffsetDateTime blockStart, final OffsetDateTime blockEnd, final TemperatureBlockCodec.Encoder encoder) {
+        this.jdbcTemplate.update(INSERT_BLOCK_SQL, IdGeneratorUUIDv7.generateUUIDv7(), blockStart, blockEnd, encoder.count(), encoder.min(), encoder.max(), encoder.toByteArray());
+    }
+
+    public void updateBlock(final OffsetDateTime blockStart, final TemperatureBlockCodec.Encoder encoder) {
+        this.jdbcTemplate.update(UPDATE_BLOCK_SQL, encoder.count(), encoder.min(), encoder.max(), encoder.toByteArray(), blockStart);
+    }
+
+    /**
+     * Stream readings in [from, to) from blocks, ordered by timestamp, decoding one block at a time. The ID passed to the consumer is always null.
+     *
+     * @return number of readings streamed
+     */
+    public long streamRange(final OffsetDateTime from, final OffsetDateTime to, final TemperatureRepositoryCustom.ReadingConsumer consumer) {
+        final long fromMicros = toEpochMicros(from);
+        final long toMicros = toEpochMicros(to);
+        final long[] rows = {0L};
+        this.jdbcTemplate.query(connection -> {
+            final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(RANGE_FETCH_SIZE);
+            preparedStatement.setObject(1, from);
+            preparedStatement.setObject(2, to);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> {
+            try {
+                TemperatureBlockCodec.decode(resultSet.getBytes(1), (epochMicros, celcius) -> {
+                    if ((epochMicros >= fromMicros) && (epochMicros < toMicros)) {
+                        consumer.accept(null, OffsetDateTime.ofInstant(Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS), ZoneOffset.UTC), celcius);
+                        rows[0]++;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // e.g. client disconnected
+            }
+        });
+        return rows[0];
+    }
+
+    /**
+     * Sealed reading at a keyset position: readings with equal timestamps are told apart by ordinal, because they have no ID.
+     * A timestamp is always in exactly one block, so the ordinal is the reading's index among its block's readings with that timestamp.
+     */
+    public record SealedReading(OffsetDateTime timestamp, int ordinal, float celcius) {
+    }
+
+    /**
+     * First readings in [from, to) from blocks, ordered by (timestamp, ordinal), for keyset pages; stops reading blocks once limit is reached.
+     *
+     * @param skipAtFrom number of readings at exactly from to skip, i.e. the last returned ordinal + 1 when resuming after a sealed reading
+     */
+    public List<SealedReading> findFirst(final OffsetDateTime from, final OffsetDateTime to, final int skipAtFrom, final int limit) {
+        final long fromMicros = toEpochMicros(from);
+        final long toMicros = toEpochMicros(to);
+        final List<SealedReading> readings = new ArrayList<>(Math.min(limit, 1024));
+        this.jdbcTemplate.query(connection -> {
+            final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(RANGE_FETCH_SIZE);
+            preparedStatement.setObject(1, from);
+            preparedStatement.setObject(2, to);
+            return preparedStatement;
+        }, (ResultSetExtractor<Void>) resultSet -> {
+            final long[] previousMicros = {Long.MIN_VALUE};
+            final int[] ordinal = {0};
+            while ((readings.size() < limit) && resultSet.next()) {
+                try {
+                    TemperatureBlockCodec.decode(resultSet.getBytes(1), (epochMicros, celcius) -> {
+                        ordinal[0] = (epochMicros == previousMicros[0]) ? ordinal[0] + 1 : 0;
+                        previousMicros[0] = epochMicros;
+                        if ((readings.size() < limit) && (epochMicros >= fromMicros) && (epochMicros < toMicros) && ((epochMicros != fromMicros) || (ordinal[0] >= skipAtFrom))) {
+                            readings.add(new SealedReading(OffsetDateTime.ofInstant(Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS), ZoneOffset.UTC), ordinal[0], celcius));
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return null;
+        });
+        return readings;
+    }
+
+    // micros is the timestamp precision of PostgreSQL and H2
+    public static long toEpochMicros(final OffsetDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant());
+    }
+}
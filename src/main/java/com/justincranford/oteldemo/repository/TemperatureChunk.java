@@ -0,0 +1,54 @@
+package com.justincranford.oteldemo.repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reusable, fixed-capacity columnar batch of new temperatures (epoch nanos and celcius), for ingest paths that must not allocate an entity per reading.
+ * Not thread safe.
+ */
+public final class TemperatureChunk {
+    private final long[] epochNanos;
+    private final float[] celcius;
+    private int size = 0;
+
+    public TemperatureChunk(final int capacity) {
+        this.epochNanos = new long[capacity];
+        this.celcius = new float[capacity];
+    }
+
+    public void add(final long epochNanos, final float celcius) {
+        this.epochNanos[this.size] = epochNanos;
+        this.celcius[this.size] = celcius;
+        this.size++;
+    }
+
+    public boolean isFull() {
+        return this.size == this.epochNanos.length;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public long epochNanos(final int index) {
+        return this.epochNanos[index];
+    }
+
+    public float celcius(final int index) {
+        return this.celcius[index];
+    }
+
+    public OffsetDateTime timestamp(final int index) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(0L, this.epochNanos[index]), ZoneOffset.UTC);
+    }
+}
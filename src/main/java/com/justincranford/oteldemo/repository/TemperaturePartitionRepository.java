@@ -0,0 +1,76 @@
+package com.justincranford.oteldemo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// PostgreSQL only: DDL for declarative range partitioning of temperatures by timestamp
+@Repository
+@RequiredArgsConstructor
+public class TemperaturePartitionRepository {
+    // Same columns as the Hibernate DDL for Temperature. Primary key must include the partition key; (timestamp, id) also serves keyset pagination
+    private static final String CREATE_PARTITIONED_TABLE_SQL = """
+        CREATE TABLE temperatures (
+            id uuid NOT NULL,
+            version integer NOT NULL,
+            timestamp timestamp(6) with time zone NOT NULL,
+            celcius real NOT NULL,
+            PRIMARY KEY (timestamp, id)
+        ) PARTITION BY RANGE (timestamp)""";
+    // Catches rows outside the pre-made partitions (e.g. historical backfill), so INSERTs never fail for lack of a partition
+    private static final String CREATE_DEFAULT_PARTITION_SQL = "CREATE TABLE temperatures_default PARTITION OF temperatures DEFAULT";
+    private static final String CREATE_PARTITION_SQL = "CREATE TABLE IF NOT EXISTS %s PARTITION OF temperatures FOR VALUES FROM ('%s') TO ('%s')";
+    private static final String SELECT_TABLE_KIND_SQL = "SELECT c.relkind FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relname = 'temperatures' AND n.nspname = current_schema()";
+    private static final String SELECT_PARTITION_NAMES_SQL = """
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent
+        JOIN pg_namespace n ON n.oid = p.relnamespace WHERE p.relname = 'temperatures' AND n.nspname = current_schema() ORDER BY c.relname""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // r=plain table, p=partitioned table, empty if temperatures doesn't exist (e.g. ddl-auto=none, and the schema isn't created yet)
+    public Optional<String> findTableKind() {
+        return this.jdbcTemplate.queryForList(SELECT_TABLE_KIND_SQL, String.class).stream().findFirst();
+    }
+
+    /**
+     * Replace the plain table created by Hibernate DDL, if it is empty. One transaction (PostgreSQL DDL is transactional), and the lock blocks
+     * concurrent writers (e.g. TemperatureRecorderScheduledTask, ingest) until commit, so no row is lost and temperatures always exists.
+     *
+     * @return false if temperatures has rows, and was left unchanged
+     */
+    public boolean replaceEmptyWithPartitionedTable() {
+        return Boolean.TRUE.equals(this.transactionTemplate.execute(status -> {
+            this.jdbcTemplate.execute("LOCK TABLE temperatures IN ACCESS EXCLUSIVE MODE");
+            if (Boolean.TRUE.equals(this.jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM temperatures)", Boolean.class))) {
+                return false;
+            }
+            this.jdbcTemplate.execute("DROP TABLE temperatures");
+            this.jdbcTemplate.execute(CREATE_PARTITIONED_TABLE_SQL);
+            this.jdbcTemplate.execute(CREATE_DEFAULT_PARTITION_SQL);
+            return true;
+        }));
+    }
+
+    public List<String> findPartitionNames() {
+        return this.jdbcTemplate.queryForList(SELECT_PARTITION_NAMES_SQL, String.class);
+    }
+
+    // DDL can't bind parameters; name and bounds are generated by TemperaturePartitionMaintenanceTask, never user input
+    public void createPartition(final String partitionName, final OffsetDateTime from, final OffsetDateTime to) {
+        this.jdbcTemplate.execute(CREATE_PARTITION_SQL.formatted(partitionName, from, to));
+    }
+
+    public void detachPartition(final String partitionName) {
+        this.jdbcTemplate.execute("ALTER TABLE temperatures DETACH PARTITION " + partitionName);
+    }
+
+    public void dropTable(final String tableName) {
+        this.jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableName);
+    }
+}
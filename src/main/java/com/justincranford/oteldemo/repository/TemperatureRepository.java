@@ -1,10 +1,29 @@
 package com.justincranford.oteldemo.repository;
 
 import com.justincranford.oteldemo.entity.Temperature;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
 @SuppressWarnings({"unused"})
-public interface TemperatureRepository extends CrudRepository<Temperature, Long> {
+public interface TemperatureRepository extends CrudRepository<Temperature, UUID>, TemperatureRepositoryCustom {
+    // Keyset (seek) pagination: every page is an index range scan on (timestamp, id), so deep pages cost the same as the first page (unlike OFFSET)
+    @Query(value="""
+        SELECT * FROM temperatures t
+        WHERE t.timestamp >= :from AND t.timestamp < :to
+        ORDER BY t.timestamp, t.id
+        LIMIT :limit""", nativeQuery=true)
+    List<Temperature> findFirstPage(OffsetDateTime from, OffsetDateTime to, int limit);
+
+    @Query(value="""
+        SELECT * FROM temperatures t
+        WHERE t.timestamp >= :from AND t.timestamp < :to AND (t.timestamp, t.id) > (:afterTimestamp, :afterId)
+        ORDER BY t.timestamp, t.id
+        LIMIT :limit""", nativeQuery=true)
+    List<Temperature> findNextPage(OffsetDateTime from, OffsetDateTime to, OffsetDateTime afterTimestamp, UUID afterId, int limit);
 }
@@ -0,0 +1,60 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.Temperature;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TemperatureRepositoryCustom {
+    // id is null for readings decoded from compressed blocks (see TemperatureBlockRepository)
+    @FunctionalInterface
+    interface ReadingConsumer {
+        void accept(UUID id, OffsetDateTime timestamp, float celcius) throws IOException;
+    }
+
+    /**
+     * Insert temperatures with plain JDBC batches, bypassing the JPA persistence context.
+     * IDs are assigned here by {@link com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7}, so entities are not updated with them.
+     *
+     * @param temperatures new temperatures; ID and version are ignored
+     * @param batchSize number of rows per JDBC batch
+     * @return number of rows inserted
+     */
+    int insertAll(List<Temperature> temperatures, int batchSize);
+
+    /**
+     * Stream temperatures with the PostgreSQL COPY protocol (CSV format), bypassing the JPA persistence context and INSERT statements.
+     * Falls back to {@link #insertAll(List, int)} if the DB is not PostgreSQL (e.g. H2).
+     *
+     * @param temperatures new temperatures; ID and version are ignored
+     * @param batchSize number of rows per JDBC batch, only used by the fallback
+     * @return number of rows inserted
+     */
+    long copyAll(List<Temperature> temperatures, int batchSize);
+
+    /**
+     * Insert one chunk of temperatures as a single JDBC batch, bypassing the JPA persistence context. Chunk capacity is the batch size.
+     *
+     * @return number of rows inserted
+     */
+    int insertChunk(TemperatureChunk chunk);
+
+    /**
+     * Stream one chunk of temperatures with the PostgreSQL COPY protocol; falls back to {@link #insertChunk(TemperatureChunk)} if not PostgreSQL.
+     *
+     * @return number of rows inserted
+     */
+    long copyChunk(TemperatureChunk chunk);
+
+    /**
+     * Stream temperatures in [from, to), ordered by (timestamp, id), through a forward-only JDBC cursor without creating entities.
+     * PostgreSQL only fetches fetchSize rows at a time if called inside a transaction (i.e. autocommit=false).
+     *
+     * @param fetchSize number of rows per DB round trip
+     * @param consumer called once per row, while the query is still running; IOException aborts the query as UncheckedIOException
+     * @return number of rows streamed
+     */
+    long streamRange(OffsetDateTime from, OffsetDateTime to, int fetchSize, ReadingConsumer consumer);
+}
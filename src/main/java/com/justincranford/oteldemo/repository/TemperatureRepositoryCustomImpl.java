@@ -0,0 +1,149 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import com.justincranford.oteldemo.entity.base.UUIDv7Generator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Spring Data JPA fragment implementation for TemperatureRepositoryCustom (found by "Impl" postfix)
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureRepositoryCustomImpl implements TemperatureRepositoryCustom {
+    static final String INSERT_SQL = "INSERT INTO temperatures (id, version, timestamp, celcius) VALUES (?, ?, ?, ?)";
+    static final String COPY_SQL = "COPY temperatures (id, version, timestamp, celcius) FROM STDIN (FORMAT csv)";
+    static final String SELECT_RANGE_SQL = "SELECT id, timestamp, celcius FROM temperatures WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp, id";
+    private static final int COPY_BUFFER_CHARS = 64 * 1024; // rows are sent to PostgreSQL in chunks of about this size
+
+    private final JdbcTemplate jdbcTemplate; // participates in the JPA transaction, because JpaTransactionManager exposes its JDBC connection
+
+    @Override
+    public int insertAll(final List<Temperature> temperatures, final int batchSize) {
+        // IDs are one contiguous block in list order, so index appends stay sequential (i.e. same benefit as hibernate.order_inserts)
+        final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(temperatures.size());
+        this.jdbcTemplate.batchUpdate(INSERT_SQL, temperatures, batchSize, (preparedStatement, temperature) -> {
+            preparedStatement.setObject(1, ids.next());
+            preparedStatement.setInt(2, 0); // same initial @Version value that Hibernate uses
+            preparedStatement.setObject(3, temperature.timestamp());
+            preparedStatement.setFloat(4, temperature.celcius());
+        });
+        return temperatures.size(); // don't sum update counts; PostgreSQL reWriteBatchedInserts=true returns SUCCESS_NO_INFO
+    }
+
+    @Override
+    public long copyAll(final List<Temperature> temperatures, final int batchSize) {
+        final Long copied = copy(temperatures.size(), (rows, index, id) -> appendCopyRow(rows, id, temperatures.get(index).timestamp(), temperatures.get(index).celcius()));
+        if (copied == null) {
+            log.debug("COPY not supported, falling back to JDBC batch insert of {} temperatures", temperatures.size());
+            return insertAll(temperatures, batchSize);
+        }
+        return copied;
+    }
+
+    @Override
+    public int insertChunk(final TemperatureChunk chunk) {
+        final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(chunk.size());
+        this.jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(final PreparedStatement preparedStatement, final int index) throws SQLException {
+                preparedStatement.setObject(1, ids.next()); // setValues is called in index order
+                preparedStatement.setInt(2, 0); // same initial @Version value that Hibernate uses
+                preparedStatement.setObject(3, chunk.timestamp(index));
+                preparedStatement.setFloat(4, chunk.celcius(index));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        });
+        return chunk.size();
+    }
+
+    @Override
+    public long copyChunk(final TemperatureChunk chunk) {
+        final Long copied = copy(chunk.size(), (rows, index, id) -> appendCopyRow(rows, id, chunk.timestamp(index), chunk.celcius(index)));
+        return (copied == null) ? insertChunk(chunk) : copied;
+    }
+
+    @FunctionalInterface
+    private interface CopyRowAppender {
+        void append(StringBuilder rows, int index, UUID id);
+    }
+
+    // null if the DB is not PostgreSQL (e.g. H2)
+    private Long copy(final int rowCount, final CopyRowAppender copyRowAppender) {
+        // COPY is not a java.sql.Statement, so the OpenTelemetry JDBC wrapper doesn't emit a span per row (or at all)
+        return this.jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return null;
+            }
+            final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(rowCount);
+            final CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                final StringBuilder rows = new StringBuilder(COPY_BUFFER_CHARS + 128);
+                for (int index = 0; index < rowCount; index++) {
+                    copyRowAppender.append(rows, index, ids.next());
+                    if (rows.length() >= COPY_BUFFER_CHARS) {
+                        writeToCopy(copyIn, rows);
+                    }
+                }
+                writeToCopy(copyIn, rows);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy(); // failed mid-stream; leave the connection usable for rollback
+                }
+            }
+        });
+    }
+
+    // CSV: uuid,version,ISO-8601 timestamptz,float4
+    private static void appendCopyRow(final StringBuilder rows, final UUID id, final OffsetDateTime timestamp, final float celcius) {
+        rows.append(id).append(",0,").append(timestamp).append(',').append(celcius).append('\n');
+    }
+
+    @Override
+    public long streamRange(final OffsetDateTime from, final OffsetDateTime to, final int fetchSize, final ReadingConsumer consumer) {
+        final long[] rows = {0L};
+        this.jdbcTemplate.query(connection -> {
+            final PreparedStatement preparedStatement = connection.prepareStatement(SELECT_RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            preparedStatement.setObject(1, from);
+            preparedStatement.setObject(2, to);
+            return preparedStatement;
+        }, (RowCallbackHandler) resultSet -> {
+            try {
+                consumer.accept(resultSet.getObject(1, UUID.class), resultSet.getObject(2, OffsetDateTime.class), resultSet.getFloat(3));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // e.g. client disconnected
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static void writeToCopy(final CopyIn copyIn, final StringBuilder rows) throws SQLException {
+        if (!rows.isEmpty()) {
+            final byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            rows.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import com.justincranford.oteldemo.entity.base.UUIDv7Generator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Incrementally maintained per-minute, per-hour, and per-day temperature rollups (count, min, max, sum).
+ * Writers call {@link #accumulate(List)} in the same transaction as the raw INSERTs; readers call {@link #findCovering(OffsetDateTime, OffsetDateTime)}.
+ * Read cost grows with the number of buckets in the range, not with the number of raw readings.
+ * Inside a transaction, deltas are merged in memory and upserted just before commit, once per bucket. Concurrent writers of the same
+ * bucket (e.g. the current minute, hour, and day) then only serialize on its rows for the commit, not for the whole transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TemperatureRollupRepository {
+    private static final String UPSERT_SQL_POSTGRESQL = """
+        INSERT INTO %s AS r (id, version, bucket_start, reading_count, min_celcius, max_celcius, sum_celcius) VALUES (?, 0, ?, ?, ?, ?, ?)
+        ON CONFLICT (bucket_start) DO UPDATE SET version = r.version + 1, reading_count = r.reading_count + EXCLUDED.reading_count,
+        min_celcius = LEAST(r.min_celcius, EXCLUDED.min_celcius), max_celcius = GREATEST(r.max_celcius, EXCLUDED.max_celcius), sum_celcius = r.sum_celcius + EXCLUDED.sum_celcius""";
+    private static final String UPSERT_SQL_H2 = """
+        MERGE INTO %s r USING (SELECT CAST(? AS UUID) AS id, CAST(? AS TIMESTAMP WITH TIME ZONE) AS bucket_start, CAST(? AS BIGINT) AS reading_count,
+        CAST(? AS REAL) AS min_celcius, CAST(? AS REAL) AS max_celcius, CAST(? AS DOUBLE PRECISION) AS sum_celcius) s ON r.bucket_start = s.bucket_start
+        WHEN MATCHED THEN UPDATE SET version = r.version + 1, reading_count = r.reading_count + s.reading_count,
+        min_celcius = LEAST(r.min_celcius, s.min_celcius), max_celcius = GREATEST(r.max_celcius, s.max_celcius), sum_celcius = r.sum_celcius + s.sum_celcius
+        WHEN NOT MATCHED THEN INSERT (id, version, bucket_start, reading_count, min_celcius, max_celcius, sum_celcius)
+        VALUES (s.id, 0, s.bucket_start, s.reading_count, s.min_celcius, s.max_celcius, s.sum_celcius)""";
+    private static final String SELECT_SQL = "SELECT bucket_start, reading_count, min_celcius, max_celcius, sum_celcius FROM %s WHERE bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDriver databaseDriver;
+
+    // Coarsest first. Buckets are UTC-aligned (e.g. day buckets start at midnight UTC)
+    @Getter
+    @Accessors(fluent=true)
+    public enum Granularity {
+        DAY(ChronoUnit.DAYS, "temperature_rollups_day"),
+        HOUR(ChronoUnit.HOURS, "temperature_rollups_hour"),
+        MINUTE(ChronoUnit.MINUTES, "temperature_rollups_minute");
+
+        private final ChronoUnit unit;
+        private final String tableName;
+
+        Granularity(final ChronoUnit unit, final String tableName) {
+            this.unit = unit;
+            this.tableName = tableName;
+        }
+
+        public OffsetDateTime floor(final OffsetDateTime timestamp) {
+            return timestamp.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(this.unit);
+        }
+
+        public OffsetDateTime ceil(final OffsetDateTime timestamp) {
+            final OffsetDateTime floor = floor(timestamp);
+            return floor.isBefore(timestamp) ? floor.plus(1, this.unit) : floor;
+        }
+    }
+
+    public record Bucket(Granularity granularity, OffsetDateTime bucketStart, long count, float min, float max, double sum) {
+        public Bucket merge(final Bucket other) {
+            return new Bucket(this.granularity, this.bucketStart, this.count + other.count, Math.min(this.min, other.min), Math.max(this.max, other.max), this.sum + other.sum);
+        }
+    }
+
+    public void accumulate(final List<Temperature> temperatures) {
+        accumulate(temperatures.size(), index -> temperatures.get(index).timestamp().toEpochSecond(), index -> temperatures.get(index).celcius());
+    }
+
+    public void accumulate(final TemperatureChunk chunk) {
+        accumulate(chunk.size(), index -> Math.floorDiv(chunk.epochNanos(index), 1_000_000_000L), chunk::celcius);
+    }
+
+    @FunctionalInterface
+    private interface IntToFloatFunction {
+        float applyAsFloat(int index);
+    }
+
+    private void accumulate(final int size, final IntToLongFunction epochSeconds, final IntToFloatFunction celcius) {
+        if (size == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            new PendingRollups().add(size, epochSeconds, celcius).upsert();
+            return;
+        }
+        PendingRollups pendingRollups = (PendingRollups) TransactionSynchronizationManager.getResource(this);
+        if (pendingRollups == null) {
+            pendingRollups = new PendingRollups();
+            TransactionSynchronizationManager.bindResource(this, pendingRollups);
+            TransactionSynchronizationManager.registerSynchronization(pendingRollups);
+        }
+        pendingRollups.add(size, epochSeconds, celcius);
+    }
+
+    // Deltas of the current transaction, per granularity and bucket start (epoch seconds)
+    private final class PendingRollups implements TransactionSynchronization {
+        private final Map<Granularity, Map<Long, Accumulator>> accumulators = new EnumMap<>(Granularity.class);
+
+        private PendingRollups add(final int size, final IntToLongFunction epochSeconds, final IntToFloatFunction celcius) {
+            for (final Granularity granularity : Granularity.values()) {
+                TemperatureRollupRepository.accumulate(granularity, size, epochSeconds, celcius, this.accumulators.computeIfAbsent(granularity, key -> new TreeMap<>()));
+            }
+            return this;
+        }
+
+        // Unbound while suspended, so e.g. a REQUIRES_NEW transaction gets its own deltas
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TemperatureRollupRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TemperatureRollupRepository.this, this);
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            upsert();
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TemperatureRollupRepository.this);
+        }
+
+        // Coarsest granularity first and buckets sorted by bucketStart, so concurrent writers lock rollup rows in the same order (no deadlocks)
+        private void upsert() {
+            this.accumulators.forEach((granularity, bucketAccumulators) -> {
+                final List<Bucket> buckets = toBuckets(granularity, bucketAccumulators);
+                final UUIDv7Generator.IdBlock ids = IdGeneratorUUIDv7.generateUUIDv7Block(buckets.size()); // only used by rows that get inserted
+                jdbcTemplate.batchUpdate(upsertSql(granularity), buckets, buckets.size(), (preparedStatement, bucket) -> {
+                    preparedStatement.setObject(1, ids.next());
+                    preparedStatement.setObject(2, bucket.bucketStart());
+                    preparedStatement.setLong(3, bucket.count());
+                    preparedStatement.setFloat(4, bucket.min());
+                    preparedStatement.setFloat(5, bucket.max());
+                    preparedStatement.setDouble(6, bucket.sum());
+                });
+            });
+        }
+    }
+
+    /**
+     * Per-bucket deltas of temperatures, for writers that don't use JDBC (e.g. ReactiveTemperatureRepository).
+     * Apply them with {@link #upsertSql(Granularity)}, in the same transaction as the raw INSERTs.
+     *
+     * @return buckets sorted by bucketStart, so concurrent writers lock rollup rows in the same order (no deadlocks)
+     */
+    public List<Bucket> aggregate(final Granularity granularity, final List<Temperature> temperatures) {
+        return aggregate(granularity, temperatures.size(), index -> temperatures.get(index).timestamp().toEpochSecond(), index -> temperatures.get(index).celcius());
+    }
+
+    // Parameters: id (only used if inserted), bucket_start, reading_count, min_celcius, max_celcius, sum_celcius
+    public String upsertSql(final Granularity granularity) {
+        return ((this.databaseDriver == DatabaseDriver.POSTGRESQL) ? UPSERT_SQL_POSTGRESQL : UPSERT_SQL_H2).formatted(granularity.tableName());
+    }
+
+    private static List<Bucket> aggregate(final Granularity granularity, final int size, final IntToLongFunction epochSeconds, final IntToFloatFunction celcius) {
+        final Map<Long, Accumulator> accumulators = new TreeMap<>();
+        accumulate(granularity, size, epochSeconds, celcius, accumulators);
+        return toBuckets(granularity, accumulators);
+    }
+
+    private static void accumulate(final Granularity granularity, final int size, final IntToLongFunction epochSeconds, final IntToFloatFunction celcius, final Map<Long, Accumulator> accumulators) {
+        final long bucketSeconds = granularity.unit().getDuration().getSeconds();
+        for (int index = 0; index < size; index++) {
+            final long seconds = epochSeconds.applyAsLong(index);
+            accumulators.computeIfAbsent(seconds - Math.floorMod(seconds, bucketSeconds), bucketStartSeconds -> new Accumulator()).add(celcius.applyAsFloat(index));
+        }
+    }
+
+    // accumulators must be sorted by bucket start
+    private static List<Bucket> toBuckets(final Granularity granularity, final Map<Long, Accumulator> accumulators) {
+        final List<Bucket> buckets = new ArrayList<>(accumulators.size());
+        accumulators.forEach((bucketStartSeconds, accumulator) -> buckets.add(new Bucket(granularity, OffsetDateTime.ofInstant(Instant.ofEpochSecond(bucketStartSeconds), ZoneOffset.UTC),
+            accumulator.count, accumulator.min, accumulator.max, accumulator.sum)));
+        return buckets;
+    }
+
+    // mutable, so accumulating allocates per bucket instead of per reading
+    private static final class Accumulator {
+        private long count = 0L;
+        private float min = Float.POSITIVE_INFINITY;
+        private float max = Float.NEGATIVE_INFINITY;
+        private double sum = 0D;
+
+        private void add(final float celcius) {
+            this.count++;
+            this.min = Math.min(this.min, celcius);
+            this.max = Math.max(this.max, celcius);
+            this.sum += celcius;
+        }
+    }
+
+    /**
+     * Cover [from, to) with the coarsest buckets that fit entirely inside it; e.g. whole days in the middle, whole hours and minutes at the edges.
+     * Precision is one minute: from and to are truncated to whole UTC minutes.
+     *
+     * @return buckets in chronological order, each one from the coarsest granularity that fits
+     */
+    public List<Bucket> findCovering(final OffsetDateTime from, final OffsetDateTime to) {
+        final List<Bucket> buckets = new ArrayList<>();
+        findCovering(Granularity.MINUTE.floor(from), Granularity.MINUTE.floor(to), 0, buckets);
+        return buckets;
+    }
+
+    private void findCovering(final OffsetDateTime from, final OffsetDateTime to, final int granularityIndex, final List<Bucket> buckets) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        final Granularity granularity = Granularity.values()[granularityIndex];
+        if (granularity == Granularity.MINUTE) {
+            buckets.addAll(findBuckets(granularity, from, to));
+            return;
+        }
+        final OffsetDateTime firstWholeBucket = granularity.ceil(from);
+        final OffsetDateTime endOfWholeBuckets = granularity.floor(to);
+        if (!firstWholeBucket.isBefore(endOfWholeBuckets)) {
+            findCovering(from, to, granularityIndex + 1, buckets); // no whole bucket fits, try finer granularity
+            return;
+        }
+        findCovering(from, firstWholeBucket, granularityIndex + 1, buckets); // leading partial bucket
+        buckets.addAll(findBuckets(granularity, firstWholeBucket, endOfWholeBuckets));
+        findCovering(endOfWholeBuckets, to, granularityIndex + 1, buckets); // trailing partial bucket
+    }
+
+    private List<Bucket> findBuckets(final Granularity granularity, final OffsetDateTime from, final OffsetDateTime to) {
+        return this.jdbcTemplate.query(SELECT_SQL.formatted(granularity.tableName()), (resultSet, rowNum) -> new Bucket(
+            granularity,
+            resultSet.getObject("bucket_start", OffsetDateTime.class),
+            resultSet.getLong("reading_count"),
+            resultSet.getFloat("min_celcius"),
+            resultSet.getFloat("max_celcius"),
+            resultSet.getDouble("sum_celcius")
+        ), from, to);
+    }
+}
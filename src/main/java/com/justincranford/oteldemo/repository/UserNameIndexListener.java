@@ -0,0 +1,35 @@
+package com.justincranford.oteldemo.repository;
+
+import com.justincranford.oteldemo.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+import static com.justincranford.oteldemo.util.TransactionUtil.afterCommit;
+
+// JPA entity listener; Spring Boot's Hibernate bean container injects the index. Changes are applied after commit, so rollbacks don't leak
+@RequiredArgsConstructor
+public class UserNameIndexListener {
+    private final UserNameNgramIndex userNameNgramIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void afterSave(final User user) {
+        if (this.userNameNgramIndex.enabled()) {
+            final UUID id = user.id();
+            final String name = user.name(); // as saved, not as the entity may be by commit time
+            afterCommit(() -> this.userNameNgramIndex.put(id, name));
+        }
+    }
+
+    @PostRemove
+    public void afterRemove(final User user) {
+        if (this.userNameNgramIndex.enabled()) {
+            final UUID id = user.id();
+            afterCommit(() -> this.userNameNgramIndex.remove(id));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.justincranford.oteldemo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process trigram index of user names, for DBs without trigram indexes (i.e. H2); PostgreSQL uses pg_trgm instead, and this stays empty.
+ * Kept in sync by {@link UserNameIndexListener} after commit, and loaded at startup by {@link UserSearchRepository}.
+ * Names are padded like pg_trgm pads words (2 leading spaces, 1 trailing space), so names shorter than a trigram are indexed too.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserNameNgramIndex {
+    private static final int N = 3;
+
+    private final DatabaseDriver databaseDriver;
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>(); // trigram of lower case name -> user IDs
+
+    public boolean enabled() {
+        return this.databaseDriver != DatabaseDriver.POSTGRESQL;
+    }
+
+    public void put(final UUID id, final String name) {
+        if (!enabled()) {
+            return;
+        }
+        remove(id); // name may have changed
+        this.names.put(id, name);
+        for (final String trigram : trigrams(pad(name.toLowerCase(Locale.ROOT)))) {
+            this.postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public void remove(final UUID id) {
+        final String name = this.names.remove(id);
+        if (name != null) {
+            for (final String trigram : trigrams(pad(name.toLowerCase(Locale.ROOT)))) {
+                this.postings.computeIfPresent(trigram, (key, ids) -> (ids.remove(id) && ids.isEmpty()) ? null : ids);
+            }
+        }
+    }
+
+    /**
+     * Case-insensitive substring search, ranked the same as the PostgreSQL query in {@link UserSearchRepository}.
+     */
+    public List<UserSearchRepository.Match> search(final String query, final int limit) {
+        final String needle = query.toLowerCase(Locale.ROOT);
+        final List<UserSearchRepository.Match> matches = new ArrayList<>();
+        for (final UUID id : candidates(needle)) {
+            final String name = this.names.get(id);
+            if ((name != null) && name.toLowerCase(Locale.ROOT).contains(needle)) { // trigrams can match out of order, so verify
+                matches.add(new UserSearchRepository.Match(id, name, similarity(name, needle)));
+            }
+        }
+        matches.sort(Comparator.<UserSearchRepository.Match>comparingInt(match -> match.name().equalsIgnoreCase(needle) ? 0 : 1)
+            .thenComparingInt(match -> match.name().toLowerCase(Locale.ROOT).startsWith(needle) ? 0 : 1)
+            .thenComparing(UserSearchRepository.Match::similarity, Comparator.reverseOrder())
+            .thenComparing(UserSearchRepository.Match::name));
+        return (matches.size() > limit) ? List.copyOf(matches.subList(0, limit)) : matches;
+    }
+
+    private Set<UUID> candidates(final String needle) {
+        if (needle.length() < N) {
+            // too short for a trigram; union of trigrams containing it (bounded by the number of distinct trigrams, not users)
+            final Set<UUID> candidates = new HashSet<>();
+            this.postings.forEach((trigram, ids) -> {
+                if (trigram.contains(needle)) {
+                    candidates.addAll(ids);
+                }
+            });
+            return candidates;
+        }
+        final List<Set<UUID>> postingLists = new ArrayList<>();
+        for (final String trigram : trigrams(needle)) {
+            final Set<UUID> ids = this.postings.get(trigram);
+            if (ids == null) {
+                return Set.of();
+            }
+            postingLists.add(ids);
+        }
+        postingLists.sort(Comparator.comparingInt(Set::size)); // intersect starting from the rarest trigram
+        final Set<UUID> candidates = new HashSet<>(postingLists.get(0));
+        for (int i = 1; (i < postingLists.size()) && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postingLists.get(i));
+        }
+        return candidates;
+    }
+
+    // Padding only adds trigrams, so a query's unpadded trigrams still match anywhere in the name
+    private static String pad(final String text) {
+        return "  " + text + " ";
+    }
+
+    private static Set<String> trigrams(final String lowerCaseText) {
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + N <= lowerCaseText.length(); i++) {
+            trigrams.add(lowerCaseText.substring(i, i + N));
+        }
+        return trigrams;
+    }
+
+    // Approximates pg_trgm similarity(): shared / total distinct trigrams, of each word padded with 2 leading spaces and 1 trailing space
+    static float similarity(final String left, final String right) {
+        final Set<String> leftTrigrams = paddedTrigrams(left);
+        final Set<String> rightTrigrams = paddedTrigrams(right);
+        final Set<String> union = new HashSet<>(leftTrigrams);
+        union.addAll(rightTrigrams);
+        leftTrigrams.retainAll(rightTrigrams);
+        return union.isEmpty() ? 0F : ((float) leftTrigrams.size()) / union.size();
+    }
+
+    private static Set<String> paddedTrigrams(final String text) {
+        final Set<String> trigrams = new HashSet<>();
+        for (final String word : text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!word.isEmpty()) {
+                trigrams.addAll(trigrams(pad(word)));
+            }
+        }
+        return trigrams;
+    }
+}
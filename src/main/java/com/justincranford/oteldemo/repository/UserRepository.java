@@ -7,14 +7,15 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 @SuppressWarnings({"unused"})
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends CrudRepository<User, UUID> {
     Optional<User> findByName(String caseSensitiveName);
-    List<User> findByNameContaining(String caseSensitiveNameSubstring);
+    List<User> findByNameContaining(String caseSensitiveNameSubstring); // sequential scan; prefer UserSearchRepository.search
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.name) = LOWER(:caseInsensitiveName)")
+    @Query("SELECT u FROM User u WHERE LOWER(u.name) = LOWER(:caseInsensitiveName)") // PostgreSQL: users_name_lower_idx
     List<User> findByNameIgnoreCase(String caseInsensitiveName);
-    List<User> findByNameIgnoreCaseContaining(String caseInsensitiveNameSubstring);
+    List<User> findByNameIgnoreCaseContaining(String caseInsensitiveNameSubstring); // sequential scan; prefer UserSearchRepository.search
 }
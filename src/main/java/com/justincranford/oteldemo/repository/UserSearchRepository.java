@@ -0,0 +1,73 @@
+package com.justincranford.oteldemo.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Indexed, ranked, case-insensitive substring search of user names.
+ * PostgreSQL: pg_trgm GIN index on lower(name), so LIKE '%...%' is an index scan instead of a sequential scan.
+ * H2: no trigram or expression indexes, so the in-process {@link UserNameNgramIndex} is used instead.
+ * Ranking: exact match, then prefix match, then trigram similarity, then name.
+ */
+@Repository
+@DependsOn("entityManagerFactory") // Hibernate DDL creates the users table first
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchRepository {
+    private static final List<String> POSTGRESQL_INDEX_DDL = List.of(
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX IF NOT EXISTS users_name_trgm_idx ON users USING gin (lower(name) gin_trgm_ops)", // LIKE '%...%' on lower(name)
+        "CREATE INDEX IF NOT EXISTS users_name_lower_idx ON users (lower(name))" // UserRepository.findByNameIgnoreCase
+    );
+    private static final String SEARCH_SQL_POSTGRESQL = """
+        SELECT id, name, similarity(lower(name), ?) AS score FROM users
+        WHERE lower(name) LIKE ? ESCAPE '\\'
+        ORDER BY lower(name) = ? DESC, lower(name) LIKE ? ESCAPE '\\' DESC, score DESC, name
+        LIMIT ?""";
+    private static final String SELECT_ALL_SQL = "SELECT id, name FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDriver databaseDriver;
+    private final UserNameNgramIndex userNameNgramIndex;
+
+    public record Match(UUID id, String name, float similarity) {
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        if (this.databaseDriver == DatabaseDriver.POSTGRESQL) {
+            try {
+                POSTGRESQL_INDEX_DDL.forEach(this.jdbcTemplate::execute);
+            } catch (DataAccessException e) {
+                log.warn("User search indexes not created (e.g. no privilege to CREATE EXTENSION pg_trgm); user search will scan users", e);
+            }
+        } else {
+            this.jdbcTemplate.query(SELECT_ALL_SQL, (RowCallbackHandler) resultSet -> this.userNameNgramIndex.put(resultSet.getObject(1, UUID.class), resultSet.getString(2)));
+            log.info("Loaded in-process user name trigram index for {}", this.databaseDriver);
+        }
+    }
+
+    public List<Match> search(final String query, final int limit) {
+        if (this.databaseDriver != DatabaseDriver.POSTGRESQL) {
+            return this.userNameNgramIndex.search(query, limit);
+        }
+        final String needle = query.toLowerCase(Locale.ROOT);
+        final String escaped = needle.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return this.jdbcTemplate.query(SEARCH_SQL_POSTGRESQL, (resultSet, rowNum) -> new Match(
+            resultSet.getObject("id", UUID.class),
+            resultSet.getString("name"),
+            resultSet.getFloat("score")
+        ), needle, "%" + escaped + "%", needle, escaped + "%", limit);
+    }
+}
@@ -0,0 +1,49 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.entity.Asset;
+import com.justincranford.oteldemo.repository.AssetRepository;
+import com.justincranford.oteldemo.repository.EntityByNameCache;
+import com.justincranford.oteldemo.repository.NamedEntityUpsertRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.justincranford.oteldemo.util.TransactionUtil.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssetService {
+    private final AssetRepository assetRepository;
+    private final EntityByNameCache<Asset> assetByNameCache;
+    private final NamedEntityUpsertRepository namedEntityUpsertRepository;
+
+    /**
+     * Case-sensitive lookup by unique name; read-through cache, so repeated lookups (including misses) usually skip the DB.
+     */
+//    @WithSpan
+    public Optional<Asset> findAssetByName(final String name) {
+        return assetByNameCache.findByName(name, assetRepository::findByName);
+    }
+
+    /**
+     * Insert assets that don't exist, and increment the version of assets that do, in one set-based statement per chunk
+     * (e.g. nightly inventory sync). Bypasses JPA, so the by-name cache is evicted here instead of by the entity listener.
+     *
+     * @return name to ID of every asset, in input order
+     */
+//    @WithSpan
+    @Transactional
+    public Map<String, UUID> upsertAssets(final List<String> names) {
+        final Map<String, UUID> ids = namedEntityUpsertRepository.upsertNames(NamedEntityUpsertRepository.Table.ASSETS, names);
+        afterCommit(() -> ids.forEach((name, id) -> assetByNameCache.evict(id, name)));
+        log.debug("Upserted {} assets", ids.size());
+        return ids;
+    }
+}
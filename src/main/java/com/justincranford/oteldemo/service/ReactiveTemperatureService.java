@@ -0,0 +1,56 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.ReactiveTemperatureRepository;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of TemperatureService.saveOneTemperature and saveManyTemperatures, for the reactive profile.
+ * Same derived data: rollups in the same transaction, and the recent readings ring buffer after commit.
+ * Each write is an observation (i.e. span and timer), a child of the request span propagated through the Reactor context.
+ */
+@Service
+@ConditionalOnWebApplication(type=ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTemperatureService {
+    private final ReactiveTemperatureRepository reactiveTemperatureRepository;
+    private final TemperatureRingBuffer temperatureRingBuffer;
+    private final ObservationRegistry observationRegistry;
+
+    public Mono<Void> saveOneTemperature(final float value) {
+        return Mono.defer(() -> write(List.of(newTemperature(value)), "reactive.temperature.save.one"));
+    }
+
+    public Mono<Void> saveManyTemperatures(final List<Float> values) {
+        return Mono.defer(() -> write(values.stream().map(this::newTemperature).toList(), "reactive.temperature.save.many"));
+    }
+
+    private Mono<Void> write(final List<Temperature> temperatures, final String observationName) {
+        return reactiveTemperatureRepository.write(temperatures)
+            .doOnSuccess(inserted -> {
+                temperatureRingBuffer.addAll(temperatures); // after commit
+                log.trace("Saved {} temperatures", inserted);
+            })
+            .name(observationName)
+            .tap(Micrometer.observation(this.observationRegistry))
+            .then();
+    }
+
+    private Temperature newTemperature(final float value) {
+        return Temperature.builder()
+            .timestamp(OffsetDateTime.now(ZoneOffset.UTC))
+            .celcius(value)
+            .build();
+    }
+}
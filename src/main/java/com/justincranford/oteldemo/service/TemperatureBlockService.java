@@ -0,0 +1,74 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.repository.TemperatureBlockCodec;
+import com.justincranford.oteldemo.repository.TemperatureBlockRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureBlockService {
+    private final TemperatureBlockRepository temperatureBlockRepository;
+
+    /**
+     * Move raw temperatures in [blockStart, blockEnd) into one compressed block. Rollups are unaffected, because readings are moved, not removed.
+     * If the block already exists (i.e. late readings arrived after it was sealed), the late readings are merged into it.
+     *
+     * @return number of raw temperatures sealed
+     */
+//    @WithSpan
+    @Transactional
+    public long sealBlock(final OffsetDateTime blockStart, final OffsetDateTime blockEnd) {
+        final byte[] existingBlock = this.temperatureBlockRepository.findBlockForUpdate(blockStart);
+        final TemperatureBlockCodec.Encoder encoder = new TemperatureBlockCodec.Encoder();
+        final long sealed;
+        if (existingBlock == null) {
+            sealed = this.temperatureBlockRepository.deleteRawRange(blockStart, blockEnd, encoder::append);
+        } else {
+            sealed = mergeIntoBlock(existingBlock, blockStart, blockEnd, encoder);
+        }
+        if (sealed == 0L) {
+            return 0L;
+        } else if (existingBlock == null) {
+            this.temperatureBlockRepository.insertBlock(blockStart, blockEnd, encoder);
+        } else {
+            this.temperatureBlockRepository.updateBlock(blockStart, encoder);
+        }
+        log.debug("Sealed {} temperatures into block [{}, {}), {} readings", sealed, blockStart, blockEnd, encoder.count());
+        return sealed;
+    }
+
+    // Both inputs are in timestamp order, so a merge keeps the block sorted; the existing block is decoded into memory (bounded by block duration)
+    private long mergeIntoBlock(final byte[] existingBlock, final OffsetDateTime blockStart, final OffsetDateTime blockEnd, final TemperatureBlockCodec.Encoder encoder) {
+        final int existingCount = TemperatureBlockCodec.count(existingBlock);
+        final long[] existingMicros = new long[existingCount];
+        final float[] existingCelcius = new float[existingCount];
+        final int[] next = {0};
+        try {
+            TemperatureBlockCodec.decode(existingBlock, (epochMicros, celcius) -> {
+                existingMicros[next[0]] = epochMicros;
+                existingCelcius[next[0]++] = celcius;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown; consumer does no I/O
+        }
+        next[0] = 0;
+        final long sealed = this.temperatureBlockRepository.deleteRawRange(blockStart, blockEnd, (epochMicros, celcius) -> {
+            while ((next[0] < existingCount) && (existingMicros[next[0]] <= epochMicros)) {
+                encoder.append(existingMicros[next[0]], existingCelcius[next[0]++]);
+            }
+            encoder.append(epochMicros, celcius);
+        });
+        while (next[0] < existingCount) {
+            encoder.append(existingMicros[next[0]], existingCelcius[next[0]++]);
+        }
+        return sealed;
+    }
+}
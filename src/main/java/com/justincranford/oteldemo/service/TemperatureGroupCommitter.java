@@ -0,0 +1,181 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synchronous group commit: concurrent callers of {@link #write(Temperature)} share one transaction, and each returns only after its row committed.
+ * There is no background thread. The first caller becomes leader, waits up to window for more callers (or until maxBatchSize are pending),
+ * then writes everyone's rows in one transaction; the others park until their row is committed or they are promoted to the next leader.
+ * Unlike write-behind, nothing is acknowledged before it is durable. If a batch fails, its rows are retried one per transaction,
+ * so only the callers whose own rows fail get an exception.
+ */
+@Component
+@ConditionalOnProperty(prefix="otel.demo.temperature.group-commit", name="enabled", havingValue="true")
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureGroupCommitter {
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10); // safety net; followers are normally unparked explicitly
+
+    private final TemperatureWriter temperatureWriter;
+    private final MeterRegistry meterRegistry;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean leading = new AtomicBoolean(false);
+    private volatile Thread leaderThread;
+
+    private long windowNanos;
+    private int maxBatchSize;
+    private DistributionSummary batchSizeSummary;
+    private Counter committedCounter;
+    private Counter failedCounter;
+
+    private static final class Pending {
+        private final Temperature temperature;
+        private final Thread thread = Thread.currentThread();
+        private volatile boolean done = false;
+        private volatile RuntimeException failure = null;
+
+        private Pending(final Temperature temperature) {
+            this.temperature = temperature;
+        }
+
+        private void complete(final RuntimeException failure) {
+            this.failure = failure;
+            this.done = true;
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    @PostConstruct
+    public void postConstruct() {
+        final TemperatureConfigurationProperties.GroupCommit groupCommit = this.temperatureConfigurationProperties.getGroupCommit();
+        this.windowNanos = groupCommit.getWindow().toNanos();
+        this.maxBatchSize = groupCommit.getMaxBatchSize();
+        this.batchSizeSummary = DistributionSummary.builder("temperature.group_commit.batch.size").description("Temperatures per group commit transaction").register(this.meterRegistry);
+        this.committedCounter = readingsCounter("committed");
+        this.failedCounter = readingsCounter("failed");
+    }
+
+    /**
+     * Blocks until temperature is committed, or throws the exception from the transaction that tried to insert it.
+     * If interrupted while waiting, keeps waiting (the row may already be committing) and restores interrupted status before returning.
+     */
+    public void write(final Temperature temperature) {
+        final Pending pending = new Pending(temperature);
+        this.queue.add(pending);
+        if (this.pendingCount.incrementAndGet() >= this.maxBatchSize) {
+            final Thread leader = this.leaderThread;
+            if (leader != null) {
+                LockSupport.unpark(leader); // batch is full, stop waiting for the window
+            }
+        }
+        boolean interrupted = false;
+        while (!pending.done) {
+            if (this.leading.compareAndSet(false, true)) {
+                try {
+                    if (!pending.done) {
+                        interrupted |= lead();
+                    }
+                } finally {
+                    this.leading.set(false);
+                    final Pending next = this.queue.peek();
+                    if (next != null) {
+                        LockSupport.unpark(next.thread); // promote the oldest waiter to leader
+                    }
+                }
+            } else {
+                LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        }
+        if (pending.failure != null) {
+            throw pending.failure;
+        }
+    }
+
+    // Returns true if interrupted while waiting for the window; the interrupt only shortens the window, and write() restores it for this caller
+    private boolean lead() {
+        boolean interrupted = false;
+        this.leaderThread = Thread.currentThread();
+        try {
+            final long deadlineNanos = System.nanoTime() + this.windowNanos;
+            long remainingNanos = this.windowNanos;
+            while ((remainingNanos > 0) && (this.pendingCount.get() < this.maxBatchSize)) {
+                LockSupport.parkNanos(this, remainingNanos); // wait for more callers to join this commit
+                if (Thread.interrupted()) {
+                    interrupted = true; // parkNanos would return immediately until the deadline
+                    break;
+                }
+                remainingNanos = deadlineNanos - System.nanoTime();
+            }
+        } finally {
+            this.leaderThread = null;
+        }
+        interrupted |= Thread.interrupted(); // cleared, so JDBC isn't interrupted during the commit
+
+        final List<Pending> batch = new ArrayList<>(Math.min(this.pendingCount.get(), this.maxBatchSize));
+        Pending pending;
+        while ((batch.size() < this.maxBatchSize) && ((pending = this.queue.poll()) != null)) {
+            batch.add(pending);
+        }
+        this.pendingCount.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return interrupted;
+        }
+        this.batchSizeSummary.record(batch.size());
+        try {
+            this.temperatureWriter.writeInNewTransaction(batch.stream().map(p -> p.temperature).toList());
+            this.committedCounter.increment(batch.size());
+            batch.forEach(p -> p.complete(null));
+            log.trace("Group committed {} temperatures", batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return interrupted;
+            }
+            log.warn("Group commit of {} temperatures failed, retrying individually", batch.size(), e);
+            for (final Pending p : batch) {
+                try {
+                    this.temperatureWriter.writeInNewTransaction(List.of(p.temperature));
+                    this.committedCounter.increment();
+                    p.complete(null);
+                } catch (RuntimeException individual) {
+                    fail(p, individual);
+                }
+            }
+        }
+        return interrupted;
+    }
+
+    private void fail(final Pending pending, final RuntimeException e) {
+        this.failedCounter.increment();
+        pending.complete(e);
+    }
+
+    private Counter readingsCounter(final String result) {
+        return Counter.builder("temperature.group_commit.readings").description("Temperatures handled by group commit").tags("result", result).register(this.meterRegistry);
+    }
+}
@@ -0,0 +1,159 @@
+package com.justincranford.oteldemo.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureChunk;
+import jakarta.transaction.Transactional;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streaming bulk ingest for sensor gateways. Request bodies are parsed incrementally into a reusable {@link TemperatureChunk},
+ * which is written whenever it fills up, so peak heap per request is one chunk regardless of the number of readings.
+ * Each request is one transaction: any invalid reading rejects the whole request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureIngestService {
+    // Fixed-width binary record: int64 epoch millis + float32 celcius, both big-endian (i.e. java.io.DataOutput)
+    public static final int BINARY_RECORD_BYTES = Long.BYTES + Float.BYTES;
+
+    // Same bounds as Temperature.celcius bean validation, read once, so ingest can validate without creating entities
+    private static final float MIN_CELCIUS = celciusBound(DecimalMin.class);
+    private static final float MAX_CELCIUS = celciusBound(DecimalMax.class);
+
+    private final TemperatureWriter temperatureWriter;
+    private final ObjectMapper objectMapper;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    /**
+     * NDJSON, one reading per line: {"timestamp":"2025-01-01T00:00:00.000Z","celcius":21.5}; timestamp may also be epoch millis.
+     *
+     * @return number of readings ingested
+     * @throws IllegalArgumentException if any reading is malformed or out of bounds
+     */
+    @Transactional(rollbackOn=Exception.class) // also roll back flushed chunks on IOException (e.g. malformed JSON)
+    public long ingestNdjson(final InputStream inputStream) throws IOException {
+        final TemperatureChunk chunk = new TemperatureChunk(this.temperatureConfigurationProperties.getBatch().getSize());
+        long readings = 0L;
+        try (final JsonParser jsonParser = this.objectMapper.getFactory().createParser(inputStream)) {
+            for (JsonToken token = jsonParser.nextToken(); token != null; token = jsonParser.nextToken()) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Reading " + readings + " is not a JSON object");
+                }
+                long epochNanos = 0L;
+                boolean hasTimestamp = false; // not a sentinel epochNanos value, because every long is a valid timestamp
+                float celcius = Float.NaN; // JSON numbers are never NaN
+                while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fieldName = jsonParser.currentName();
+                    final JsonToken valueToken = jsonParser.nextToken();
+                    if ("timestamp".equals(fieldName)) {
+                        epochNanos = parseTimestamp(jsonParser, valueToken, readings);
+                        hasTimestamp = true;
+                    } else if ("celcius".equals(fieldName) && valueToken.isNumeric()) {
+                        celcius = jsonParser.getFloatValue();
+                    } else {
+                        jsonParser.skipChildren(); // ignore unknown fields
+                    }
+                }
+                if (!hasTimestamp) {
+                    throw new IllegalArgumentException("Reading " + readings + " is missing timestamp");
+                } else if (Float.isNaN(celcius)) {
+                    throw new IllegalArgumentException("Reading " + readings + " is missing numeric celcius");
+                }
+                add(chunk, epochNanos, celcius, readings++);
+            }
+        }
+        flush(chunk);
+        log.debug("Ingested {} NDJSON temperatures", readings);
+        return readings;
+    }
+
+    /**
+     * Binary, {@link #BINARY_RECORD_BYTES} bytes per reading: int64 epoch millis + float32 celcius, big-endian.
+     *
+     * @return number of readings ingested
+     * @throws IllegalArgumentException if any reading is out of bounds, or the body is not a whole number of records
+     */
+    @Transactional(rollbackOn=Exception.class) // also roll back flushed chunks on IOException (e.g. client disconnect)
+    public long ingestBinary(final InputStream inputStream) throws IOException {
+        final TemperatureChunk chunk = new TemperatureChunk(this.temperatureConfigurationProperties.getBatch().getSize());
+        final byte[] record = new byte[BINARY_RECORD_BYTES];
+        final ByteBuffer recordBuffer = ByteBuffer.wrap(record); // reused; big-endian by default
+        long readings = 0L;
+        for (int bytesRead = inputStream.readNBytes(record, 0, BINARY_RECORD_BYTES); bytesRead > 0; bytesRead = inputStream.readNBytes(record, 0, BINARY_RECORD_BYTES)) {
+            if (bytesRead < BINARY_RECORD_BYTES) {
+                throw new IllegalArgumentException("Reading " + readings + " is truncated, " + bytesRead + " of " + BINARY_RECORD_BYTES + " bytes");
+            }
+            add(chunk, millisToNanos(recordBuffer.getLong(0), readings), recordBuffer.getFloat(Long.BYTES), readings++);
+        }
+        flush(chunk);
+        log.debug("Ingested {} binary temperatures", readings);
+        return readings;
+    }
+
+    private void add(final TemperatureChunk chunk, final long epochNanos, final float celcius, final long reading) {
+        if (!(celcius >= MIN_CELCIUS && celcius <= MAX_CELCIUS)) { // also rejects NaN
+            throw new IllegalArgumentException("Reading " + reading + " celcius " + celcius + " is outside [" + MIN_CELCIUS + ", " + MAX_CELCIUS + "]");
+        }
+        chunk.add(epochNanos, celcius);
+        if (chunk.isFull()) {
+            flush(chunk);
+        }
+    }
+
+    private void flush(final TemperatureChunk chunk) {
+        if (!chunk.isEmpty()) {
+            this.temperatureWriter.writeChunk(chunk);
+            chunk.clear();
+        }
+    }
+
+    private static long parseTimestamp(final JsonParser jsonParser, final JsonToken valueToken, final long reading) throws IOException {
+        if (valueToken == JsonToken.VALUE_NUMBER_INT) {
+            return millisToNanos(jsonParser.getLongValue(), reading); // epoch millis
+        } else if (valueToken == JsonToken.VALUE_STRING) {
+            try {
+                final OffsetDateTime timestamp = OffsetDateTime.parse(jsonParser.getText());
+                return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(), 1_000_000_000L), timestamp.getNano());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Reading " + reading + " timestamp is not ISO-8601", e);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Reading " + reading + " timestamp is outside the epoch nanos range", e);
+            }
+        }
+        throw new IllegalArgumentException("Reading " + reading + " timestamp must be an ISO-8601 string or epoch millis");
+    }
+
+    // epoch nanos fit years 1677 to 2262; anything outside would silently wrap around
+    private static long millisToNanos(final long epochMillis, final long reading) {
+        try {
+            return Math.multiplyExact(epochMillis, 1_000_000L);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Reading " + reading + " timestamp is outside the epoch nanos range", e);
+        }
+    }
+
+    private static float celciusBound(final Class<? extends java.lang.annotation.Annotation> annotationClass) {
+        try {
+            final java.lang.annotation.Annotation annotation = Temperature.class.getDeclaredField("celcius").getAnnotation(annotationClass);
+            final String value = (annotation instanceof DecimalMin decimalMin) ? decimalMin.value() : ((DecimalMax) annotation).value();
+            return Float.parseFloat(value);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Temperature.celcius not found", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process ring buffer of the most recent temperatures, for hot reads (latest N, windowed stats) without DB load.
+ * Readings are stored in preallocated primitive arrays, so writes allocate nothing.
+ * Writers claim slots with one atomic increment; readers never lock, and use a per-slot sequence (seqlock) to skip slots being overwritten.
+ */
+@Component
+public class TemperatureRingBuffer {
+    private static final long WRITING = -1L;
+
+    private final int mask;
+    private final long[] epochNanos;
+    private final float[] celcius;
+    private final AtomicLongArray sequences; // per slot: sequence of the reading published there, or WRITING
+    private final AtomicLong nextSequence = new AtomicLong(0L);
+
+    public record RecentReading(OffsetDateTime timestamp, float celcius) {
+    }
+
+    public record WindowStats(long windowSeconds, long count, Float min, Float max, Double average, double ratePerSecond) {
+    }
+
+    public TemperatureRingBuffer(final TemperatureConfigurationProperties temperatureConfigurationProperties) {
+        final int capacity = Integer.highestOneBit(temperatureConfigurationProperties.getRecent().getCapacity() - 1) << 1; // round up to power of 2
+        this.mask = capacity - 1;
+        this.epochNanos = new long[capacity];
+        this.celcius = new float[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            this.sequences.set(slot, WRITING); // nothing published yet
+        }
+    }
+
+    public void addAll(final List<Temperature> temperatures) {
+        for (final Temperature temperature : temperatures) {
+            final OffsetDateTime timestamp = temperature.timestamp();
+            add((timestamp.toEpochSecond() * 1_000_000_000L) + timestamp.getNano(), temperature.celcius());
+        }
+    }
+
+    public void add(final long epochNanos, final float celcius) {
+        final long sequence = this.nextSequence.getAndIncrement();
+        final int slot = (int) (sequence & this.mask);
+        this.sequences.set(slot, WRITING);
+        VarHandle.storeStoreFence(); // readers must see WRITING before any of the new data
+        this.epochNanos[slot] = epochNanos;
+        this.celcius[slot] = celcius;
+        this.sequences.setRelease(slot, sequence); // publish
+    }
+
+    // newest first
+    public List<RecentReading> latest(final int n) {
+        final List<RecentReading> readings = new ArrayList<>(Math.max(0, Math.min(n, this.mask + 1)));
+        final long newest = this.nextSequence.get() - 1L;
+        final long oldest = Math.max(0L, newest - this.mask);
+        for (long sequence = newest; (sequence >= oldest) && (readings.size() < n); sequence--) {
+            final int slot = (int) (sequence & this.mask);
+            if (this.sequences.getAcquire(slot) != sequence) {
+                continue; // not published yet, or already overwritten
+            }
+            final long slotEpochNanos = this.epochNanos[slot];
+            final float slotCelcius = this.celcius[slot];
+            VarHandle.loadLoadFence();
+            if (this.sequences.get(slot) != sequence) {
+                continue; // overwritten while reading
+            }
+            readings.add(new RecentReading(OffsetDateTime.ofInstant(Instant.ofEpochSecond(0L, slotEpochNanos), ZoneOffset.UTC), slotCelcius));
+        }
+        return readings;
+    }
+
+    // Scans from newest back to the first reading older than the window; readings are in approximate arrival order
+    public WindowStats stats(final long windowSeconds) {
+        final Instant now = Instant.now();
+        final long cutoffEpochNanos = ((now.getEpochSecond() - windowSeconds) * 1_000_000_000L) + now.getNano();
+        long count = 0L;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        double sum = 0D;
+        final long newest = this.nextSequence.get() - 1L;
+        final long oldest = Math.max(0L, newest - this.mask);
+        for (long sequence = newest; sequence >= oldest; sequence--) {
+            final int slot = (int) (sequence & this.mask);
+            if (this.sequences.getAcquire(slot) != sequence) {
+                continue;
+            }
+            final long slotEpochNanos = this.epochNanos[slot];
+            final float slotCelcius = this.celcius[slot];
+            VarHandle.loadLoadFence();
+            if (this.sequences.get(slot) != sequence) {
+                continue;
+            }
+            if (slotEpochNanos < cutoffEpochNanos) {
+                break;
+            }
+            count++;
+            min = Math.min(min, slotCelcius);
+            max = Math.max(max, slotCelcius);
+            sum += slotCelcius;
+        }
+        if (count == 0L) {
+            return new WindowStats(windowSeconds, 0L, null, null, null, 0D);
+        }
+        return new WindowStats(windowSeconds, count, min, max, sum / count, (double) count / windowSeconds);
+    }
+}
@@ -1,42 +1,206 @@
 package com.justincranford.oteldemo.service;
 
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
 import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureBlockRepository;
 import com.justincranford.oteldemo.repository.TemperatureRepository;
+import com.justincranford.oteldemo.repository.TemperatureRepositoryCustom;
+import com.justincranford.oteldemo.repository.TemperatureRollupRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+// Transactions are started by TemperatureWriter, so write-behind callers don't hold a DB connection while enqueuing
 @Service
-@Transactional
 @RequiredArgsConstructor
 @Slf4j
 public class TemperatureService {
+    private final TemperatureWriter temperatureWriter;
     private final TemperatureRepository temperatureRepository;
+    private final TemperatureRollupRepository temperatureRollupRepository;
+    private final TemperatureBlockRepository temperatureBlockRepository;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+    private final TemperatureRingBuffer temperatureRingBuffer;
+    private final Optional<TemperatureWriteBehindBuffer> temperatureWriteBehindBuffer; // present if otel.demo.temperature.write-behind.enabled=true
+    private final Optional<TemperatureGroupCommitter> temperatureGroupCommitter; // present if otel.demo.temperature.group-commit.enabled=true
+
+    public record Summary(OffsetDateTime from, OffsetDateTime to, long count, Float min, Float max, Double average, int bucketsRead) {
+    }
+
+    public record Reading(UUID id, OffsetDateTime timestamp, float celcius) {
+        static Reading of(final Temperature temperature) {
+            return new Reading(temperature.id(), temperature.timestamp(), temperature.celcius());
+        }
+    }
+
+    // nextCursor is null on the last page
+    public record Page(List<Reading> items, String nextCursor) {
+    }
+
+    /**
+     * Opaque keyset pagination cursor: position after the last (timestamp, id) returned.
+     * Encoded as base64url of epoch micros (8 bytes) and UUID (16 bytes); micros is the timestamp precision of PostgreSQL and H2.
+     * Sealed readings have no ID, so their cursor holds the block ordinal in a UUID with zero most significant bits, which UUIDv7 IDs never have.
+     */
+    public record Cursor(OffsetDateTime timestamp, UUID id) {
+        private static final int ENCODED_BYTES = Long.BYTES + Long.BYTES + Long.BYTES;
+
+        static Cursor sealed(final OffsetDateTime timestamp, final int ordinal) {
+            return new Cursor(timestamp, new UUID(0L, ordinal));
+        }
+
+        boolean isSealed() {
+            return this.id.getMostSignificantBits() == 0L;
+        }
+
+        public String encode() {
+            final ByteBuffer byteBuffer = ByteBuffer.allocate(ENCODED_BYTES);
+            byteBuffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, this.timestamp.toInstant()));
+            byteBuffer.putLong(this.id.getMostSignificantBits());
+            byteBuffer.putLong(this.id.getLeastSignificantBits());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(byteBuffer.array());
+        }
+
+        public static Cursor decode(final String cursor) {
+            final byte[] bytes = Base64.getUrlDecoder().decode(cursor); // throws IllegalArgumentException
+            if (bytes.length != ENCODED_BYTES) {
+                throw new IllegalArgumentException("Invalid cursor length");
+            }
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+            final OffsetDateTime timestamp;
+            try {
+                timestamp = OffsetDateTime.ofInstant(Instant.EPOCH.plus(byteBuffer.getLong(), ChronoUnit.MICROS), ZoneOffset.UTC);
+            } catch (DateTimeException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid cursor timestamp", e); // tampered cursor
+            }
+            return new Cursor(timestamp, new UUID(byteBuffer.getLong(), byteBuffer.getLong()));
+        }
+    }
 
 //    @WithSpan
     public void saveManyTemperatures(final List<Float> values) {
-        final List<Temperature> temperatures = values.stream().map(this::saveTemperature).toList();
-        log.trace("Saved {} temperatures: {}", temperatures.size(), temperatures);
+        temperatureWriter.write(values.stream().map(this::newTemperature).toList());
     }
 
 //    @WithSpan
     public void saveOneTemperature(final float value) {
-        final Temperature temperature = saveTemperature(value);
-        log.trace("Saved temperature: {}", temperature);
+        final Temperature temperature = newTemperature(value);
+        if (this.temperatureWriteBehindBuffer.isPresent()) {
+            this.temperatureWriteBehindBuffer.get().enqueue(temperature);
+            log.trace("Enqueued temperature: {}", temperature);
+        } else if (this.temperatureGroupCommitter.isPresent()) {
+            this.temperatureGroupCommitter.get().write(temperature);
+            log.trace("Group committed temperature: {}", temperature);
+        } else {
+            temperatureWriter.write(List.of(temperature));
+            log.trace("Saved temperature: {}", temperature);
+        }
     }
 
+    /**
+     * Summarize temperatures in [from, to) from rollups, without scanning raw rows. Precision is one minute.
+     */
 //    @WithSpan
-    private Temperature saveTemperature(final float value) {
-        return temperatureRepository.save(
-            Temperature.builder()
-                .timestamp(OffsetDateTime.now(ZoneOffset.UTC))
-                .celcius(value)
-                .build()
-        );
+    public Summary summarizeTemperatures(final OffsetDateTime from, final OffsetDateTime to) {
+        final List<TemperatureRollupRepository.Bucket> buckets = temperatureRollupRepository.findCovering(from, to);
+        return buckets.stream()
+            .reduce(TemperatureRollupRepository.Bucket::merge)
+            .map(total -> new Summary(from, to, total.count(), total.min(), total.max(), total.sum() / total.count(), buckets.size()))
+            .orElseGet(() -> new Summary(from, to, 0L, null, null, null, 0));
+    }
+
+    /**
+     * Page through temperatures in [from, to), ordered by (timestamp, id), using keyset pagination.
+     * Sealed readings from blocks (ID is null) are merged in, ordered before raw rows with the same timestamp.
+     *
+     * @param cursor null for the first page, otherwise nextCursor from the previous page
+     * @param limit requested page size; null for the default, capped at the max page size
+     */
+//    @WithSpan
+    public Page findTemperatures(final OffsetDateTime from, final OffsetDateTime to, final Cursor cursor, final Integer limit) {
+        final TemperatureConfigurationProperties.Query query = this.temperatureConfigurationProperties.getQuery();
+        final int pageSize = Math.max(1, Math.min((limit == null) ? query.getDefaultPageSize() : limit, query.getMaxPageSize()));
+        final List<TemperatureBlockRepository.SealedReading> sealed;
+        final List<Temperature> temperatures;
+        if (cursor == null) {
+            sealed = temperatureBlockRepository.findFirst(from, to, 0, pageSize);
+            temperatures = temperatureRepository.findFirstPage(from, to, pageSize);
+        } else if (cursor.isSealed()) {
+            // after a sealed reading: the rest of the sealed readings at its timestamp, then all raw rows from its timestamp
+            sealed = temperatureBlockRepository.findFirst(cursor.timestamp(), to, (int) cursor.id().getLeastSignificantBits() + 1, pageSize);
+            temperatures = temperatureRepository.findFirstPage(cursor.timestamp(), to, pageSize);
+        } else {
+            // after a raw row: sealed readings at its timestamp were already returned before it
+            sealed = temperatureBlockRepository.findFirst(cursor.timestamp().plus(1L, ChronoUnit.MICROS), to, 0, pageSize);
+            temperatures = temperatureRepository.findNextPage(from, to, cursor.timestamp(), cursor.id(), pageSize);
+        }
+
+        final List<Reading> readings = new ArrayList<>(pageSize);
+        Cursor last = null;
+        int nextSealed = 0;
+        int nextRaw = 0;
+        while (readings.size() < pageSize && (nextSealed < sealed.size() || nextRaw < temperatures.size())) {
+            if (nextRaw == temperatures.size() || (nextSealed < sealed.size() && !temperatures.get(nextRaw).timestamp().isBefore(sealed.get(nextSealed).timestamp()))) {
+                final TemperatureBlockRepository.SealedReading sealedReading = sealed.get(nextSealed++);
+                readings.add(new Reading(null, sealedReading.timestamp(), sealedReading.celcius()));
+                last = Cursor.sealed(sealedReading.timestamp(), sealedReading.ordinal());
+            } else {
+                final Temperature temperature = temperatures.get(nextRaw++);
+                readings.add(Reading.of(temperature));
+                last = new Cursor(temperature.timestamp(), temperature.id());
+            }
+        }
+        final String nextCursor = (readings.size() < pageSize) ? null : last.encode();
+        return new Page(readings, nextCursor);
+    }
+
+    /**
+     * Stream all temperatures in [from, to), ordered by (timestamp, id), with constant memory regardless of row count.
+     * Sealed readings from compressed blocks come first (ID is null), then raw rows; sealed ranges are always older than raw rows,
+     * except for late readings not yet merged into their block.
+     *
+     * @param consumer called once per row, while the query is still running
+     * @return number of rows streamed
+     */
+//    @WithSpan
+    @Transactional // PostgreSQL only uses a server-side cursor for fetchSize if autocommit=false; otherwise it buffers the whole result set
+    public long exportTemperatures(final OffsetDateTime from, final OffsetDateTime to, final TemperatureRepositoryCustom.ReadingConsumer consumer) {
+        final long sealed = temperatureBlockRepository.streamRange(from, to, consumer);
+        return sealed + temperatureRepository.streamRange(from, to, this.temperatureConfigurationProperties.getQuery().getExportFetchSize(), consumer);
+    }
+
+    /**
+     * Most recent readings from the in-memory ring buffer, newest first; no DB access.
+     */
+    public List<TemperatureRingBuffer.RecentReading> findRecentTemperatures(final int n) {
+        return temperatureRingBuffer.latest(Math.max(0, n));
+    }
+
+    /**
+     * Count, min, max, average, and rate of readings in the last windowSeconds, from the in-memory ring buffer; no DB access.
+     * Only covers readings still in the ring buffer (see otel.demo.temperature.recent.capacity).
+     */
+    public TemperatureRingBuffer.WindowStats summarizeRecentTemperatures(final long windowSeconds) {
+        return temperatureRingBuffer.stats(Math.max(1L, windowSeconds));
+    }
+
+    private Temperature newTemperature(final float value) {
+        return Temperature.builder()
+            .timestamp(OffsetDateTime.now(ZoneOffset.UTC))
+            .celcius(value)
+            .build();
     }
 }
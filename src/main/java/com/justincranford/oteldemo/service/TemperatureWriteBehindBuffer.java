@@ -0,0 +1,170 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory queue of temperatures, flushed to the DB in batches by a single background writer thread.
+ * A flush happens when flushSize readings are queued, or flushInterval elapsed since the last flush, whichever comes first.
+ * Thousands of single-row transactions become a few multi-row transactions, at the cost of durability: queued readings are lost on a crash.
+ */
+@Component
+@ConditionalOnProperty(prefix="otel.demo.temperature.write-behind", name="enabled", havingValue="true")
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureWriteBehindBuffer {
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L); // shutdown is noticed within this, even with a long flushInterval
+
+    private final TemperatureWriter temperatureWriter;
+    private final MeterRegistry meterRegistry;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    private TemperatureConfigurationProperties.WriteBehind writeBehind;
+    private BlockingQueue<Temperature> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter flushedCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void postConstruct() {
+        this.writeBehind = this.temperatureConfigurationProperties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(this.writeBehind.getCapacity());
+
+        Gauge.builder("temperature.write_behind.queue.size", this.queue, BlockingQueue::size).description("Temperatures waiting for the background writer").register(this.meterRegistry);
+        this.flushedCounter = readingsCounter("flushed");
+        this.failedCounter = readingsCounter("failed");
+        this.droppedCounter = readingsCounter("dropped");
+        this.rejectedCounter = readingsCounter("rejected");
+
+        this.running = true;
+        this.writerThread = new Thread(this::writeLoop);
+        this.writerThread.setName("temperature-write-behind");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        this.running = false; // writer thread notices within MAX_POLL_NANOS, then drains the queue
+        try {
+            this.writerThread.join(this.writeBehind.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            log.warn("Interrupted waiting for temperature-write-behind to drain");
+        }
+        if (this.writerThread.isAlive()) {
+            log.warn("temperature-write-behind did not drain within {}, {} temperatures remaining", this.writeBehind.getShutdownTimeout(), this.queue.size());
+        } else {
+            drain(); // catch enqueue calls that raced with the writer thread's final drain
+        }
+    }
+
+    public void enqueue(final Temperature temperature) {
+        if (!this.running) {
+            this.rejectedCounter.increment();
+            throw new RejectedExecutionException("Temperature write-behind buffer is shut down");
+        }
+        switch (this.writeBehind.getOverflowPolicy()) {
+            case BLOCK -> {
+                try {
+                    if (!this.queue.offer(temperature, this.writeBehind.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                        this.rejectedCounter.increment();
+                        throw new RejectedExecutionException("Temperature write-behind buffer full for " + this.writeBehind.getBlockTimeout());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // Restore interrupted status
+                    this.rejectedCounter.increment();
+                    throw new RejectedExecutionException("Interrupted waiting for temperature write-behind buffer capacity", e);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!this.queue.offer(temperature)) {
+                    if (this.queue.poll() != null) {
+                        this.droppedCounter.increment();
+                    }
+                }
+            }
+            case REJECT -> {
+                if (!this.queue.offer(temperature)) {
+                    this.rejectedCounter.increment();
+                    throw new RejectedExecutionException("Temperature write-behind buffer full");
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        final int flushSize = this.writeBehind.getFlushSize();
+        final long flushIntervalNanos = this.writeBehind.getFlushInterval().toNanos();
+        final List<Temperature> batch = new ArrayList<>(flushSize);
+        long flushDeadlineNanos = System.nanoTime() + flushIntervalNanos;
+        while (this.running) {
+            try {
+                final long remainingNanos = flushDeadlineNanos - System.nanoTime();
+                final Temperature first = (remainingNanos > 0) ? this.queue.poll(Math.min(remainingNanos, MAX_POLL_NANOS), TimeUnit.NANOSECONDS) : null;
+                if (first != null) {
+                    batch.add(first);
+                    this.queue.drainTo(batch, flushSize - batch.size());
+                }
+                if ((batch.size() >= flushSize) || (System.nanoTime() - flushDeadlineNanos >= 0)) {
+                    flush(batch);
+                    flushDeadlineNanos = System.nanoTime() + flushIntervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+                log.warn("Interrupted temperature-write-behind");
+                break;
+            }
+        }
+        flush(batch);
+        drain();
+        log.info("temperature-write-behind stopped");
+    }
+
+    private void drain() {
+        final List<Temperature> batch = new ArrayList<>(this.writeBehind.getFlushSize());
+        while (this.queue.drainTo(batch, this.writeBehind.getFlushSize()) > 0) {
+            flush(batch);
+        }
+    }
+
+    private void flush(final List<Temperature> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.temperatureWriter.write(batch);
+            this.flushedCounter.increment(batch.size());
+            log.trace("Flushed {} temperatures", batch.size());
+        } catch (RuntimeException e) {
+            this.failedCounter.increment(batch.size());
+            log.error("Failed to flush {} temperatures", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private Counter readingsCounter(final String result) {
+        return Counter.builder("temperature.write_behind.readings").description("Temperatures handled by the write-behind buffer").tags("result", result).register(this.meterRegistry);
+    }
+}
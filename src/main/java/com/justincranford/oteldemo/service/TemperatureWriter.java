@@ -0,0 +1,65 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureChunk;
+import com.justincranford.oteldemo.repository.TemperatureRepository;
+import com.justincranford.oteldemo.repository.TemperatureRollupRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.justincranford.oteldemo.util.TransactionUtil.afterCommit;
+
+/**
+ * Single transactional write path for temperatures. Every insert (synchronous, write-behind, group commit, ingest) goes through here,
+ * so derived data (i.e. rollups) is updated in the same transaction as the raw rows, and the recent readings ring buffer after commit
+ * (live writes only, because the ring buffer assumes recent readings in approximate arrival order).
+ */
+@Component
+@Transactional
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureWriter {
+    private final TemperatureRepository temperatureRepository;
+    private final TemperatureRollupRepository temperatureRollupRepository;
+    private final TemperatureRingBuffer temperatureRingBuffer;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    public void write(final List<Temperature> temperatures) {
+        final TemperatureConfigurationProperties.Batch batch = this.temperatureConfigurationProperties.getBatch();
+        if (temperatures.size() >= batch.getCopyThreshold()) {
+            // very large lists: PostgreSQL COPY protocol, or JDBC batches on H2
+            final long copied = temperatureRepository.copyAll(temperatures, batch.getSize());
+            log.trace("Copied {} temperatures", copied);
+        } else if (temperatures.size() >= batch.getBulkThreshold()) {
+            // large lists: plain JDBC batches, no dirty checking and no first-level cache growth
+            final int inserted = temperatureRepository.insertAll(temperatures, batch.getSize());
+            log.trace("Bulk inserted {} temperatures", inserted);
+        } else {
+            // small lists: Hibernate JDBC batches (see hibernate.jdbc.batch_size and hibernate.order_inserts)
+            temperatureRepository.saveAll(temperatures);
+            log.trace("Saved {} temperatures: {}", temperatures.size(), temperatures);
+        }
+        temperatureRollupRepository.accumulate(temperatures);
+        afterCommit(() -> temperatureRingBuffer.addAll(temperatures)); // live writes only, see writeChunk
+    }
+
+    // Group commit: the leader must not join a caller's outer transaction, because other callers return as soon as this commits
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void writeInNewTransaction(final List<Temperature> temperatures) {
+        write(temperatures);
+    }
+
+    // Chunk capacity is the JDBC batch size. Caller may clear and reuse the chunk after this returns.
+    // Not added to the ring buffer: gateways ingest client timestamps, which may be old or out of order (e.g. backfill of historical sensor data)
+    public long writeChunk(final TemperatureChunk chunk) {
+        final long inserted = temperatureRepository.copyChunk(chunk); // PostgreSQL COPY, or one JDBC batch on H2
+        log.trace("Inserted chunk of {} temperatures", inserted);
+        temperatureRollupRepository.accumulate(chunk);
+        return inserted;
+    }
+}
@@ -0,0 +1,76 @@
+package com.justincranford.oteldemo.service;
+
+import com.justincranford.oteldemo.configuration.UserConfigurationProperties;
+import com.justincranford.oteldemo.entity.User;
+import com.justincranford.oteldemo.repository.EntityByNameCache;
+import com.justincranford.oteldemo.repository.NamedEntityUpsertRepository;
+import com.justincranford.oteldemo.repository.UserNameNgramIndex;
+import com.justincranford.oteldemo.repository.UserRepository;
+import com.justincranford.oteldemo.repository.UserSearchRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.justincranford.oteldemo.util.TransactionUtil.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserService {
+    private final UserRepository userRepository;
+    private final UserSearchRepository userSearchRepository;
+    private final EntityByNameCache<User> userByNameCache;
+    private final NamedEntityUpsertRepository namedEntityUpsertRepository;
+    private final UserNameNgramIndex userNameNgramIndex;
+    private final UserConfigurationProperties userConfigurationProperties;
+
+    /**
+     * Case-insensitive substring search of user names, ranked by exact match, prefix match, then similarity.
+     *
+     * @param limit requested number of results; null for the default, capped at the max limit
+     * @throws IllegalArgumentException if the query is blank or shorter than the min query length
+     */
+//    @WithSpan
+    public List<UserSearchRepository.Match> searchUsers(final String query, final Integer limit) {
+        final UserConfigurationProperties.Search search = this.userConfigurationProperties.getSearch();
+        if ((query == null) || query.isBlank() || (query.length() < search.getMinQueryLength())) {
+            throw new IllegalArgumentException("Query must be at least " + search.getMinQueryLength() + " characters");
+        }
+        final int resultLimit = Math.max(1, Math.min((limit == null) ? search.getDefaultLimit() : limit, search.getMaxLimit()));
+        final List<UserSearchRepository.Match> matches = userSearchRepository.search(query, resultLimit);
+        log.trace("Found {} users matching {}", matches.size(), query);
+        return matches;
+    }
+
+    /**
+     * Case-sensitive lookup by unique name; read-through cache, so repeated lookups (including misses) usually skip the DB.
+     */
+//    @WithSpan
+    public Optional<User> findUserByName(final String name) {
+        return userByNameCache.findByName(name, userRepository::findByName);
+    }
+
+    /**
+     * Insert users that don't exist, and increment the version of users that do, in one set-based statement per chunk.
+     * Bypasses JPA, so the by-name cache and search index are updated here instead of by entity listeners.
+     *
+     * @return name to ID of every user, in input order
+     */
+//    @WithSpan
+    @Transactional
+    public Map<String, UUID> upsertUsers(final List<String> names) {
+        final Map<String, UUID> ids = namedEntityUpsertRepository.upsertNames(NamedEntityUpsertRepository.Table.USERS, names);
+        afterCommit(() -> ids.forEach((name, id) -> {
+            userByNameCache.evict(id, name);
+            userNameNgramIndex.put(id, name);
+        }));
+        log.debug("Upserted {} users", ids.size());
+        return ids;
+    }
+}
@@ -0,0 +1,20 @@
+package com.justincranford.oteldemo.task;
+
+import com.justincranford.oteldemo.configuration.CardinalityLimitingMeterFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Updates metric meter.cardinality.series with the current top offenders
+@Component
+@ConditionalOnProperty(prefix="otel.demo.metrics.cardinality", name="enabled", havingValue="true")
+@RequiredArgsConstructor
+public class MeterCardinalityReportTask {
+    private final CardinalityLimitingMeterFilter cardinalityLimitingMeterFilter;
+
+    @Scheduled(fixedRateString="${otel.demo.metrics.cardinality.report-interval:PT1M}")
+    public void reportTopOffenders() {
+        this.cardinalityLimitingMeterFilter.reportTopOffenders();
+    }
+}
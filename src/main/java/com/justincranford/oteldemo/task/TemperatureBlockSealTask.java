@@ -0,0 +1,54 @@
+package com.justincranford.oteldemo.task;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.repository.TemperatureBlockRepository;
+import com.justincranford.oteldemo.service.TemperatureBlockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Moves raw temperatures older than sealAfter into compressed blocks, one block-duration range per transaction, oldest first.
+ * Only whole block ranges are sealed, so each block range is sealed once (plus merges of late readings).
+ */
+@Component
+@ConditionalOnProperty(prefix="otel.demo.temperature.blocks", name="enabled", havingValue="true")
+@RequiredArgsConstructor
+@Slf4j
+public class TemperatureBlockSealTask {
+    private final TemperatureBlockRepository temperatureBlockRepository;
+    private final TemperatureBlockService temperatureBlockService;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    @Scheduled(fixedDelayString="${otel.demo.temperature.blocks.seal-interval:PT10M}")
+    public void sealBlocks() {
+        final TemperatureConfigurationProperties.Blocks blocks = this.temperatureConfigurationProperties.getBlocks();
+        final long blockMicros = blocks.getDuration().toNanos() / 1000L;
+        final OffsetDateTime cutoff = floor(OffsetDateTime.now(ZoneOffset.UTC).minus(blocks.getSealAfter()), blockMicros);
+        long sealed = 0L;
+        for (OffsetDateTime oldest = this.temperatureBlockRepository.findOldestRawTimestamp(cutoff); oldest != null; oldest = this.temperatureBlockRepository.findOldestRawTimestamp(cutoff)) {
+            final OffsetDateTime blockStart = floor(oldest, blockMicros);
+            final long sealedInBlock = this.temperatureBlockService.sealBlock(blockStart, blockStart.plus(blocks.getDuration()));
+            if (sealedInBlock == 0L) {
+                break; // e.g. concurrent seal
+            }
+            sealed += sealedInBlock;
+        }
+        if (sealed > 0L) {
+            log.info("Sealed {} temperatures older than {} into compressed blocks", sealed, cutoff);
+        }
+    }
+
+    // Block ranges are aligned to the epoch (e.g. duration=1h starts blocks on the hour UTC)
+    private static OffsetDateTime floor(final OffsetDateTime timestamp, final long blockMicros) {
+        final long epochMicros = TemperatureBlockRepository.toEpochMicros(timestamp);
+        return OffsetDateTime.ofInstant(Instant.EPOCH.plus(epochMicros - Math.floorMod(epochMicros, blockMicros), ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+}
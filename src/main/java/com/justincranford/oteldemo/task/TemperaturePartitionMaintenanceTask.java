@@ -0,0 +1,121 @@
+package com.justincranford.oteldemo.task;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.repository.TemperaturePartitionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PostgreSQL only: keeps temperatures range partitioned by timestamp.
+ * Future partitions are created ahead of time, and retention detaches or drops whole partitions instead of DELETE (no table bloat, no VACUUM).
+ * Range predicates on timestamp (e.g. TemperatureRepository keyset pages and exports) get partition pruning.
+ */
+@Component
+@ConditionalOnProperty(prefix="otel.demo.temperature.partitioning", name="enabled", havingValue="true")
+@DependsOn("entityManagerFactory") // Hibernate DDL creates the plain temperatures table first
+@RequiredArgsConstructor
+@Slf4j
+public class TemperaturePartitionMaintenanceTask {
+    private static final String PARTITION_PREFIX = "temperatures_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd of the partition start
+
+    private final DatabaseDriver databaseDriver;
+    private final TemperaturePartitionRepository temperaturePartitionRepository;
+    private final TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    private volatile boolean partitioned = false;
+
+    @PostConstruct
+    public void postConstruct() {
+        if (this.databaseDriver != DatabaseDriver.POSTGRESQL) {
+            log.info("Temperature partitioning requires PostgreSQL, keeping plain temperatures table on {}", this.databaseDriver);
+            return;
+        }
+        maintainPartitions();
+    }
+
+    @Scheduled(fixedRateString="${otel.demo.temperature.partitioning.maintenance-interval:PT1H}")
+    public void maintainPartitions() {
+        if (!this.partitioned && !partitionTable()) {
+            return;
+        }
+        final TemperatureConfigurationProperties.Partitioning partitioning = this.temperatureConfigurationProperties.getPartitioning();
+        final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        OffsetDateTime partitionStart = floor(now, partitioning.getInterval());
+        for (int i = 0; i <= partitioning.getPremake(); i++) {
+            final OffsetDateTime partitionEnd = next(partitionStart, partitioning.getInterval());
+            final String partitionName = PARTITION_PREFIX + PARTITION_SUFFIX.format(partitionStart.toLocalDate()); // LocalDate, because BASIC_ISO_DATE appends the offset (e.g. Z) of an OffsetDateTime
+            try {
+                this.temperaturePartitionRepository.createPartition(partitionName, partitionStart, partitionEnd);
+            } catch (DataAccessException e) {
+                // e.g. temperatures_default already has rows in this range
+                log.error("Failed to create partition {} [{}, {})", partitionName, partitionStart, partitionEnd, e);
+            }
+            partitionStart = partitionEnd;
+        }
+
+        final OffsetDateTime retentionCutoff = now.minus(partitioning.getRetention());
+        for (final String partitionName : this.temperaturePartitionRepository.findPartitionNames()) {
+            final Matcher matcher = PARTITION_NAME.matcher(partitionName);
+            if (!matcher.matches()) {
+                continue; // e.g. temperatures_default
+            }
+            final OffsetDateTime start = LocalDate.parse(matcher.group(1), PARTITION_SUFFIX).atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (!next(start, partitioning.getInterval()).isAfter(retentionCutoff)) {
+                this.temperaturePartitionRepository.detachPartition(partitionName);
+                if (partitioning.getRetentionAction() == TemperatureConfigurationProperties.RetentionAction.DROP) {
+                    this.temperaturePartitionRepository.dropTable(partitionName);
+                }
+                log.info("Retention {} partition {}, older than {}", partitioning.getRetentionAction(), partitionName, partitioning.getRetention());
+            }
+        }
+    }
+
+    // Retried on every run until it succeeds, e.g. temperatures is created after startup when Hibernate DDL is off (ddl-auto=none)
+    private boolean partitionTable() {
+        if (this.databaseDriver != DatabaseDriver.POSTGRESQL) {
+            return false;
+        }
+        final Optional<String> tableKind = this.temperaturePartitionRepository.findTableKind();
+        if (tableKind.isEmpty()) {
+            log.warn("Temperature partitioning deferred, temperatures table doesn't exist yet");
+            return false;
+        }
+        if (!"p".equals(tableKind.get())) {
+            if (!this.temperaturePartitionRepository.replaceEmptyWithPartitionedTable()) {
+                log.warn("Temperature partitioning skipped, plain temperatures table is not empty; migrate it manually");
+                return false;
+            }
+            log.info("Replaced plain temperatures table with partitioned table");
+        }
+        this.partitioned = true;
+        return true;
+    }
+
+    private static OffsetDateTime floor(final OffsetDateTime timestamp, final TemperatureConfigurationProperties.PartitionInterval interval) {
+        final OffsetDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return (interval == TemperatureConfigurationProperties.PartitionInterval.MONTHLY) ? day.withDayOfMonth(1) : day;
+    }
+
+    private static OffsetDateTime next(final OffsetDateTime partitionStart, final TemperatureConfigurationProperties.PartitionInterval interval) {
+        return (interval == TemperatureConfigurationProperties.PartitionInterval.MONTHLY) ? partitionStart.plusMonths(1) : partitionStart.plusDays(1);
+    }
+}
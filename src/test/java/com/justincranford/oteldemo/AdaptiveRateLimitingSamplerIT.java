@@ -0,0 +1,96 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.AdaptiveRateLimitingSampler;
+import com.justincranford.oteldemo.configuration.OpenTelemetrySamplerConfiguration;
+import com.justincranford.oteldemo.configuration.TracingConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class AdaptiveRateLimitingSamplerIT extends AbstractIT {
+    private static final double TRACES_PER_SECOND = 20.0;
+
+    @Test
+    void testSampledRateStaysNearTargetAndRareRoutesAreSampled() throws Exception {
+        final TracingConfigurationProperties.AdaptiveSampling adaptiveSampling = new TracingConfigurationProperties.AdaptiveSampling();
+        adaptiveSampling.setTracesPerSecond(TRACES_PER_SECOND);
+        adaptiveSampling.setInterval(Duration.ofMillis(100));
+        final AdaptiveRateLimitingSampler sampler = new AdaptiveRateLimitingSampler(adaptiveSampling);
+
+        final long endNanos = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        long seen = 0;
+        long sampled = 0;
+        while (System.nanoTime() < endNanos) {
+            seen++;
+            sampled += isSampled(sampler, Context.root(), "hot") ? 1 : 0;
+            if ((seen % 1000) == 0) {
+                Thread.sleep(1); // about 1M root spans per second would make the test CPU bound
+            }
+        }
+        log.info("Seen {}, sampled {}", seen, sampled);
+        assertThat(seen).isGreaterThan(100L * (long) TRACES_PER_SECOND);
+        assertThat(sampled).isBetween(1L, (long) (2 * 2 * TRACES_PER_SECOND) + 20L); // 2s at target rate, x2 slack; +1 minimum per 100ms interval
+
+        assertThat(isSampled(sampler, Context.root(), "rare")).isTrue(); // first trace of a route in an interval is always sampled
+
+        final SpanContext unsampledParent = SpanContext.create(IdGenerator.random().generateTraceId(), IdGenerator.random().generateSpanId(), TraceFlags.getDefault(), TraceState.getDefault());
+        assertThat(isSampled(sampler, Context.root().with(Span.wrap(unsampledParent)), "child")).isFalse(); // children follow their parent
+    }
+
+    @Test
+    void testOnlyPathsMappedToAHandlerBecomeRoutes() throws Exception {
+        final TracingConfigurationProperties.AdaptiveSampling adaptiveSampling = new TracingConfigurationProperties.AdaptiveSampling();
+        adaptiveSampling.setMaxRoutes(5);
+        final AdaptiveRateLimitingSampler sampler = new AdaptiveRateLimitingSampler(adaptiveSampling);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sampler.bindTo(meterRegistry);
+        final OpenTelemetrySamplerConfiguration.RouteFilter routeFilter = new OpenTelemetrySamplerConfiguration.RouteFilter(sampler);
+
+        for (int i = 0; i < 100; i++) {
+            doRequest(routeFilter, sampler, "/scan/" + i, "/**"); // 404 scan, served by the static resource catch-all
+        }
+        doRequest(routeFilter, sampler, "/temperatures", "/temperatures"); // first request is sampled as "other", then learned
+        doRequest(routeFilter, sampler, "/temperatures/", "/temperatures");
+        doRequest(routeFilter, sampler, "/temperatures;jsessionid=abc", "/temperatures");
+        doRequest(routeFilter, sampler, "/actuator/health", "/actuator/health");
+        doRequest(routeFilter, sampler, "/actuator/prometheus", "/actuator/prometheus");
+
+        final Map<String, Double> sampledByRoute = meterRegistry.find("otel.adaptive_sampling.sampled").counters().stream()
+            .collect(Collectors.toMap(counter -> counter.getId().getTag("route"), Counter::count));
+        log.info("Sampled by route: {}", sampledByRoute);
+        assertThat(sampledByRoute).containsOnlyKeys("other", "/temperatures", "/actuator/*");
+    }
+
+    private static void doRequest(final OpenTelemetrySamplerConfiguration.RouteFilter routeFilter, final AdaptiveRateLimitingSampler sampler, final String path, final String bestMatchingPattern) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        routeFilter.doFilter(request, new MockHttpServletResponse(), (filterRequest, filterResponse) -> {
+            isSampled(sampler, Context.root(), "http get"); // ServerHttpObservationFilter starts the server span inside the chain
+            filterRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, bestMatchingPattern);
+        });
+    }
+
+    private static boolean isSampled(final AdaptiveRateLimitingSampler sampler, final Context parentContext, final String name) {
+        return sampler.shouldSample(parentContext, IdGenerator.random().generateTraceId(), name, SpanKind.SERVER, Attributes.empty(), List.of()).getDecision() == SamplingDecision.RECORD_AND_SAMPLE;
+    }
+}
@@ -0,0 +1,34 @@
+package com.justincranford.oteldemo;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestPropertySource(properties={"otel.demo.jdbc.telemetry-mode=AGGREGATED"})
+@Slf4j
+class AggregatingJdbcDataSourceIT extends AbstractIT {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testStatementsAggregatedByShape() {
+        this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE name = 'a'", Long.class);
+        this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE name = 'b'", Long.class); // same shape, different literal
+        final Collection<Timer> timers = super.meterRegistry().find("db.client.operation.duration").tag("db.collection.name", "users").tag("outcome", "success").timers();
+        assertThat(timers).anySatisfy(timer -> {
+            assertThat(timer.getId().getTag("db.query.fingerprint")).isNotBlank();
+            assertThat(timer.count()).isGreaterThanOrEqualTo(2L);
+        });
+
+        assertThatThrownBy(() -> this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM no_such_table", Long.class)).isNotNull();
+        assertThat(super.meterRegistry().get("db.client.operation.duration").tag("db.collection.name", "no_such_table").tag("outcome", "error").timer().count()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.justincranford.oteldemo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.justincranford.oteldemo.configuration.AsyncOpenTelemetryAppender;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class AsyncOpenTelemetryAppenderIT extends AbstractIT {
+    @Test
+    void testDropsLowerLevelsFirstAndFiltersMdc() throws Exception {
+        final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ILoggingEvent> exported = new CopyOnWriteArrayList<>();
+        final AppenderBase<ILoggingEvent> blockingAppender = new AppenderBase<>() {
+            @Override
+            protected void append(final ILoggingEvent event) {
+                try {
+                    release.await(10, TimeUnit.SECONDS); // simulates a slow export, so the queue fills up
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // Restore interrupted status
+                }
+                exported.add(event);
+            }
+        };
+        blockingAppender.setContext(loggerContext);
+        blockingAppender.start();
+
+        final AsyncOpenTelemetryAppender asyncAppender = new AsyncOpenTelemetryAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.setName("test");
+        asyncAppender.setCapacity(10);
+        asyncAppender.setInfoFillLimit(50);
+        asyncAppender.setWarnFillLimit(80);
+        asyncAppender.setMdcKeys("allowed");
+        asyncAppender.addAppender(blockingAppender);
+        asyncAppender.start();
+        try {
+            final Logger logger = loggerContext.getLogger(AsyncOpenTelemetryAppenderIT.class);
+            try (MDC.MDCCloseable allowed = MDC.putCloseable("allowed", "yes"); MDC.MDCCloseable denied = MDC.putCloseable("denied", "no")) {
+                for (int i = 0; i < 20; i++) {
+                    asyncAppender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "info " + i, null, null));
+                }
+                // INFO saturated its 5 slots (plus at most 1 held by the blocked worker); ERROR may use the other 5 of the capacity
+                for (int i = 0; i < 4; i++) {
+                    asyncAppender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.ERROR, "error " + i, null, null));
+                }
+            }
+            assertThat(asyncAppender.droppedCount(Level.INFO)).isPositive();
+            assertThat(asyncAppender.droppedCount(Level.ERROR)).isZero();
+        } finally {
+            release.countDown();
+            asyncAppender.stop();
+        }
+        assertThat(exported).isNotEmpty().allSatisfy(event -> assertThat(event.getMDCPropertyMap()).containsOnlyKeys("allowed"));
+        assertThat(exported.stream().filter(event -> event.getLevel() == Level.ERROR)).hasSize(4);
+        final String loggingThreadName = Thread.currentThread().getName(); // not the export worker's
+        assertThat(exported).allSatisfy(event -> assertThat(event.getKeyValuePairs()).anySatisfy(keyValuePair -> {
+            assertThat(keyValuePair.key).isEqualTo(AsyncOpenTelemetryAppender.THREAD_NAME_KEY);
+            assertThat(keyValuePair.value).isEqualTo(loggingThreadName);
+        }));
+    }
+}
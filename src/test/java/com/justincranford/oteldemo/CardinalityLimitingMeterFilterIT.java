@@ -0,0 +1,61 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.CardinalityLimitingMeterFilter;
+import com.justincranford.oteldemo.configuration.MetricsConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static com.justincranford.oteldemo.util.HttpUtil.doHttpGet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class CardinalityLimitingMeterFilterIT extends AbstractIT {
+    @Test
+    void testCollapsesOverflowIntoOtherSeries() {
+        final MetricsConfigurationProperties.Cardinality cardinality = new MetricsConfigurationProperties.Cardinality();
+        cardinality.setMaxSeries(3);
+        final CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(cardinality, Set.of("service"));
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry(); // isolated from the application's registries
+        registry.config().meterFilter(filter);
+        filter.bindTo(registry);
+
+        for (int i = 0; i < 10; i++) {
+            Counter.builder("users.logins").tags("service", "oteldemo", "user", "user" + i).register(registry).increment();
+        }
+        assertThat(registry.find("users.logins").counters()).hasSize(4); // 3 users, plus the overflow series
+        assertThat(registry.get("users.logins").tags("service", "oteldemo", "user", CardinalityLimitingMeterFilter.OTHER).counter().count()).isEqualTo(7.0);
+        assertThat(filter.topOffenders()).first().isEqualTo(new CardinalityLimitingMeterFilter.MeterCardinality("users.logins", 3, 3, 7L));
+
+        filter.reportTopOffenders();
+        assertThat(registry.get("meter.cardinality.series").tag("meter", "users.logins").gauge().value()).isEqualTo(3.0);
+        assertThat(registry.get("meter.cardinality.collapsed").functionCounter().count()).isEqualTo(7.0);
+    }
+
+    @Test
+    void testRemovedMetersReleaseTheirSeries() {
+        final MetricsConfigurationProperties.Cardinality cardinality = new MetricsConfigurationProperties.Cardinality();
+        cardinality.setMaxSeries(2);
+        final CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(cardinality, Set.of());
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(filter).onMeterRemoved(filter::onMeterRemoved);
+
+        final Counter user0 = Counter.builder("users.logins").tags("user", "user0").register(registry);
+        Counter.builder("users.logins").tags("user", "user1").register(registry);
+        assertThat(Counter.builder("users.logins").tags("user", "user2").register(registry).getId().getTag("user")).isEqualTo(CardinalityLimitingMeterFilter.OTHER);
+
+        registry.remove(user0);
+        assertThat(filter.topOffenders()).first().extracting(CardinalityLimitingMeterFilter.MeterCardinality::series).isEqualTo(1);
+        assertThat(Counter.builder("users.logins").tags("user", "user3").register(registry).getId().getTag("user")).isEqualTo("user3"); // took the released series
+    }
+
+    @Test
+    void testActuatorEndpoint() {
+        final String responseBody = doHttpGet(super.baseUrl() + "/actuator/cardinality"); // asserts 200 OK
+        log.info("Cardinality response:\n{}", responseBody);
+        assertThat(responseBody).startsWith("[{\"meter\":\"").contains("\"series\":", "\"maxSeries\":", "\"collapsed\":").endsWith("}]"); // application meters have tags
+    }
+}
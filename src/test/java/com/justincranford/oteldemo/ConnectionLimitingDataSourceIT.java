@@ -0,0 +1,36 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.ConnectionLimitingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class ConnectionLimitingDataSourceIT extends AbstractIT {
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testPermitReleasedOnceOnClose() throws Exception {
+        final ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(this.dataSource, 1, 100L);
+        final Connection connection = limited.getConnection();
+        assertThat(limited.available()).isZero();
+        assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        connection.close();
+        connection.close(); // idempotent, must not over-release
+        assertThat(limited.available()).isEqualTo(1);
+
+        try (Connection again = limited.getConnection()) {
+            assertThat(again.isValid(1)).isTrue();
+        }
+        assertThat(limited.available()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.entity.User;
+import com.justincranford.oteldemo.repository.UserRepository;
+import com.justincranford.oteldemo.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class EntityByNameCacheIT extends AbstractIT {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testNegativeCachingAndInvalidation() {
+        final String name = "cached-" + UUID.randomUUID();
+        final double hitsBefore = hits();
+
+        assertThat(this.userService.findUserByName(name)).isEmpty(); // miss, loads from DB
+        assertThat(this.userService.findUserByName(name)).isEmpty(); // negative hit, no DB
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+
+        final User saved = this.userRepository.save(User.builder().name(name).build()); // evicts the negative entry after commit
+        assertThat(this.userService.findUserByName(name)).hasValueSatisfying(user -> assertThat(user.id()).isEqualTo(saved.id()));
+
+        final String newName = name + "-renamed";
+        this.userRepository.save(saved.name(newName)); // @Version changes; evicts old and new names
+        assertThat(this.userService.findUserByName(name)).isEmpty();
+        assertThat(this.userService.findUserByName(newName)).isPresent();
+    }
+
+    private double hits() {
+        return super.meterRegistry().get("cache.gets").tag("cache", "users.by_name").tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,52 @@
+package com.justincranford.oteldemo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static com.justincranford.oteldemo.util.HttpUtil.doHttpGet;
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class ExemplarsIT extends AbstractIT {
+    // e.g. http_server_requests_seconds_bucket{...,uri="/hello",le="0.01"} 3 # {span_id="...",trace_id="..."} 0.0021 1718000000.123
+    private static final Pattern HTTP_BUCKET_EXEMPLAR = Pattern.compile("(?m)^http_server_requests_seconds_bucket\\{.*uri=\"/hello\".*} \\S+ # \\{.*trace_id=\"[0-9a-f]{32}\".*}");
+
+    @Test
+    void testHistogramBucketsLinkToTraces() {
+        doHttpGet(super.baseUrl() + "/hello");
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, "application/openmetrics-text; version=1.0.0"); // exemplars aren't in the Prometheus text format
+        final RestTemplate restTemplate = new RestTemplateBuilder().build();
+        final ResponseEntity<String> responseEntity = restTemplate.exchange(super.baseUrl() + "/actuator/prometheus", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).containsPattern(HTTP_BUCKET_EXEMPLAR);
+    }
+
+    // the collector converts the exemplars above into OTLP exemplars, only if it scrapes this endpoint in the OpenMetrics format
+    @Test
+    void testCollectorScrapesExemplars() {
+        final YamlPropertiesFactoryBean yamlPropertiesFactoryBean = new YamlPropertiesFactoryBean();
+        yamlPropertiesFactoryBean.setResources(new ClassPathResource("otel-config.yaml"));
+        final Properties otelConfig = requireNonNull(yamlPropertiesFactoryBean.getObject());
+        final String scrapeConfig = "receivers.receiver/prometheus/externalAppScrape.config.scrape_configs[0].";
+        assertThat(otelConfig.getProperty(scrapeConfig + "metrics_path")).isEqualTo("/actuator/prometheus");
+        assertThat(otelConfig.getProperty(scrapeConfig + "scrape_protocols[0]")).isEqualTo("OpenMetricsText1.0.0");
+        assertThat(IntStream.range(0, otelConfig.size()).mapToObj(i -> otelConfig.getProperty("service.pipelines.metrics.receivers[" + i + "]")))
+            .contains("receiver/prometheus/externalAppScrape");
+    }
+}
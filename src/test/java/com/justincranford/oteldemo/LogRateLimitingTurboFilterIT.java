@@ -0,0 +1,44 @@
+package com.justincranford.oteldemo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.justincranford.oteldemo.configuration.LogRateLimitingTurboFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class LogRateLimitingTurboFilterIT extends AbstractIT {
+    @Test
+    void testSuppressesDuplicatesAndSummarizes() {
+        final LoggerContext loggerContext = new LoggerContext(); // isolated from the application's logging
+        final LogRateLimitingTurboFilter filter = new LogRateLimitingTurboFilter();
+        filter.setContext(loggerContext);
+        filter.setMaxPerWindow(3);
+        filter.setWindowMillis(60_000L);
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+
+        final ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+        final Logger logger = loggerContext.getLogger("rate.limited");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(listAppender);
+
+        for (int i = 0; i < 10; i++) {
+            logger.info("Recording temperature {}", i);
+            logger.error("Failed {}", i); // never suppressed
+        }
+        assertThat(listAppender.list.stream().filter(event -> event.getLevel() == Level.INFO)).hasSize(3);
+        assertThat(listAppender.list.stream().filter(event -> event.getLevel() == Level.ERROR)).hasSize(10);
+        assertThat(filter.suppressedCount()).isEqualTo(7L);
+
+        filter.stop(); // summarizes open windows
+        assertThat(listAppender.list).last().satisfies(event -> assertThat(event.getFormattedMessage()).isEqualTo("Suppressed 7 similar log events in 60000ms: Recording temperature {}"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.repository.AssetRepository;
+import com.justincranford.oteldemo.repository.UserRepository;
+import com.justincranford.oteldemo.service.AssetService;
+import com.justincranford.oteldemo.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class NamedEntityUpsertIT extends AbstractIT {
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testUpsertAssets() {
+        final String prefix = "asset-" + UUID.randomUUID() + "-";
+        final List<String> names = IntStream.range(0, 2_000).mapToObj(i -> prefix + i).toList();
+
+        final Map<String, UUID> inserted = this.assetService.upsertAssets(names);
+        assertThat(inserted).hasSize(names.size()).doesNotContainValue(null);
+        assertThat(inserted.keySet()).containsExactlyElementsOf(names); // input order
+
+        final List<String> resync = List.of(names.get(0), prefix + "new", names.get(0)); // existing, new, duplicate
+        final Map<String, UUID> upserted = this.assetService.upsertAssets(resync);
+        assertThat(upserted).containsEntry(names.get(0), inserted.get(names.get(0))).containsKey(prefix + "new").hasSize(2);
+        assertThat(this.assetRepository.findByName(names.get(0))).hasValueSatisfying(asset -> assertThat(asset.version()).isEqualTo(1));
+        assertThat(this.assetRepository.findByName(names.get(1))).hasValueSatisfying(asset -> assertThat(asset.version()).isEqualTo(0));
+    }
+
+    @Test
+    void testUpsertUsers() {
+        final String prefix = "user-" + UUID.randomUUID() + "-";
+        final List<String> names = IntStream.range(0, 2_000).mapToObj(i -> prefix + i).toList();
+
+        final Map<String, UUID> inserted = this.userService.upsertUsers(names);
+        assertThat(inserted).hasSize(names.size()).doesNotContainValue(null);
+        assertThat(inserted.keySet()).containsExactlyElementsOf(names); // input order
+
+        final List<String> resync = List.of(names.get(0), prefix + "new", names.get(0)); // existing, new, duplicate
+        final Map<String, UUID> upserted = this.userService.upsertUsers(resync);
+        assertThat(upserted).containsEntry(names.get(0), inserted.get(names.get(0))).containsKey(prefix + "new").hasSize(2);
+        assertThat(this.userRepository.findByName(names.get(0))).hasValueSatisfying(user -> assertThat(user.version()).isEqualTo(1));
+        assertThat(this.userRepository.findByName(names.get(1))).hasValueSatisfying(user -> assertThat(user.version()).isEqualTo(0));
+    }
+
+    @Test
+    void testConcurrentUpsertsOfOverlappingNamesInOppositeOrder() throws Exception {
+        final String prefix = "user-" + UUID.randomUUID() + "-";
+        final List<String> names = IntStream.range(0, 1_000).mapToObj(i -> prefix + i).toList();
+        this.userService.upsertUsers(names);
+
+        // without sorting, each sync would lock rows in its own order, and PostgreSQL would abort one of them as a deadlock
+        final List<String> reversed = new ArrayList<>(names);
+        Collections.reverse(reversed);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Map<String, UUID>> forward = executorService.submit(() -> {
+                start.await();
+                return this.userService.upsertUsers(names);
+            });
+            final Future<Map<String, UUID>> backward = executorService.submit(() -> {
+                start.await();
+                return this.userService.upsertUsers(reversed);
+            });
+            start.countDown();
+            assertThat(forward.get().keySet()).containsExactlyElementsOf(names); // still input order
+            assertThat(backward.get().keySet()).containsExactlyElementsOf(reversed);
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertThat(this.userRepository.findByName(names.get(0))).hasValueSatisfying(user -> assertThat(user.version()).isEqualTo(2));
+        assertThat(this.userRepository.findByName(names.get(names.size() - 1))).hasValueSatisfying(user -> assertThat(user.version()).isEqualTo(2));
+    }
+}
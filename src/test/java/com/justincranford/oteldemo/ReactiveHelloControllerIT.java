@@ -0,0 +1,8 @@
+package com.justincranford.oteldemo;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Same tests as HelloControllerIT, against WebFlux and R2DBC instead of servlet and JDBC
+@ActiveProfiles("reactive")
+class ReactiveHelloControllerIT extends HelloControllerIT {
+}
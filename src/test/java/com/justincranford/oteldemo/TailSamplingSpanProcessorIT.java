@@ -0,0 +1,153 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.ExemplarSpanContext;
+import com.justincranford.oteldemo.configuration.TailSamplingSpanProcessor;
+import com.justincranford.oteldemo.configuration.TracingConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class TailSamplingSpanProcessorIT extends AbstractIT {
+    @Test
+    void testKeepsErrorsAndSlowTracesOnly() {
+        final TracingConfigurationProperties.TailSampling tailSampling = new TracingConfigurationProperties.TailSampling();
+        tailSampling.setBaseRate(0.0);
+        tailSampling.setLatencyThreshold(Duration.ofMillis(50));
+        final List<ReadableSpan> exported = new CopyOnWriteArrayList<>();
+        try (SdkTracerProvider sdkTracerProvider = SdkTracerProvider.builder().addSpanProcessor(new TailSamplingSpanProcessor(collecting(exported), tailSampling, super.meterRegistry())).build()) {
+            final Tracer tracer = sdkTracerProvider.get("TailSamplingSpanProcessorIT");
+
+            trace(tracer, false, 0L); // dropped
+            assertThat(exported).isEmpty();
+
+            trace(tracer, true, 0L); // error in child span keeps the whole trace
+            assertThat(exported).hasSize(2);
+
+            trace(tracer, false, 100L); // slow root span
+            assertThat(exported).hasSize(4);
+        }
+        assertThat(super.meterRegistry().get("otel.tail_sampling.traces").tag("decision", "dropped").counter().count()).isPositive();
+    }
+
+    @Test
+    void testKeepsTracesLinkedByExemplars() {
+        final TracingConfigurationProperties.TailSampling tailSampling = new TracingConfigurationProperties.TailSampling();
+        tailSampling.setBaseRate(0.0);
+        final List<ReadableSpan> exported = new CopyOnWriteArrayList<>();
+        try (SdkTracerProvider sdkTracerProvider = SdkTracerProvider.builder().addSpanProcessor(new TailSamplingSpanProcessor(collecting(exported), tailSampling, super.meterRegistry())).build()) {
+            final Tracer tracer = sdkTracerProvider.get("TailSamplingSpanProcessorIT");
+            final Span root = tracer.spanBuilder("root").startSpan();
+            try (Scope ignored = root.makeCurrent()) {
+                new ExemplarSpanContext().markCurrentSpanAsExemplar(); // e.g. a histogram bucket picked this request as its exemplar
+            } finally {
+                root.end();
+            }
+            assertThat(exported).hasSize(1);
+        }
+        assertThat(super.meterRegistry().get("otel.tail_sampling.traces").tag("decision", "kept_exemplar").counter().count()).isPositive();
+    }
+
+    @Test
+    void testExemplarTracesAreCappedByBudget() {
+        final TracingConfigurationProperties.TailSampling tailSampling = new TracingConfigurationProperties.TailSampling();
+        tailSampling.setBaseRate(0.0);
+        tailSampling.setMaxExemplarTracesPerSecond(2);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final List<ReadableSpan> exported = new CopyOnWriteArrayList<>();
+        try (SdkTracerProvider sdkTracerProvider = SdkTracerProvider.builder().addSpanProcessor(new TailSamplingSpanProcessor(collecting(exported), tailSampling, meterRegistry)).build()) {
+            final Tracer tracer = sdkTracerProvider.get("TailSamplingSpanProcessorIT");
+            for (int i = 0; i < 10; i++) {
+                final Span root = tracer.spanBuilder("root").startSpan();
+                try (Scope ignored = root.makeCurrent()) {
+                    new ExemplarSpanContext().markCurrentSpanAsExemplar();
+                } finally {
+                    root.end();
+                }
+            }
+        }
+        assertThat(exported).hasSizeBetween(2, 4); // at most one window boundary while the loop runs
+        assertThat(meterRegistry.get("otel.tail_sampling.traces").tag("decision", "kept_exemplar").counter().count()).isEqualTo(exported.size());
+        assertThat(meterRegistry.get("otel.tail_sampling.exemplars.over_budget").counter().count()).isEqualTo(10 - exported.size());
+    }
+
+    @Test
+    void testOpenTraceDoesNotPinDecidedTraces() {
+        final TracingConfigurationProperties.TailSampling tailSampling = new TracingConfigurationProperties.TailSampling();
+        tailSampling.setBaseRate(0.0);
+        tailSampling.setMaxTraces(100);
+        tailSampling.setMaxTraceAge(Duration.ofMinutes(1));
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(); // own gauges, not the ones of other tests' processors
+        final List<ReadableSpan> exported = new CopyOnWriteArrayList<>();
+        try (SdkTracerProvider sdkTracerProvider = SdkTracerProvider.builder().addSpanProcessor(new TailSamplingSpanProcessor(collecting(exported), tailSampling, meterRegistry)).build()) {
+            final Tracer tracer = sdkTracerProvider.get("TailSamplingSpanProcessorIT");
+            final Span longRunning = tracer.spanBuilder("long-running").startSpan();
+            final Span longRunningChild = tracer.spanBuilder("child").setParent(Context.root().with(longRunning)).startSpan();
+            longRunningChild.end(); // buffers the long-running trace, which stays open while many short traces complete
+            for (int i = 0; i < 10_000; i++) {
+                trace(tracer, false, 0L);
+                assertThat(meterRegistry.get("otel.tail_sampling.buffered.traces").gauge().value()).isEqualTo(1.0); // also the size of the insertion order
+            }
+            assertThat(meterRegistry.get("otel.tail_sampling.traces").tag("decision", "dropped").counter().count()).isEqualTo(10_000.0); // none decided early by overflow
+
+            longRunning.setStatus(StatusCode.ERROR);
+            longRunning.end();
+            assertThat(exported).hasSize(2); // the open trace kept all of its spans
+            assertThat(meterRegistry.get("otel.tail_sampling.buffered.traces").gauge().value()).isZero();
+        }
+    }
+
+    private static void trace(final Tracer tracer, final boolean childError, final long rootMillis) {
+        final Span root = tracer.spanBuilder("root").startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            final Span child = tracer.spanBuilder("child").startSpan();
+            if (childError) {
+                child.setStatus(StatusCode.ERROR);
+            }
+            child.end();
+            Thread.sleep(rootMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        } finally {
+            root.end();
+        }
+    }
+
+    private static SpanProcessor collecting(final List<ReadableSpan> exported) {
+        return new SpanProcessor() {
+            @Override
+            public void onStart(final Context parentContext, final ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(final ReadableSpan span) {
+                exported.add(span);
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+        };
+    }
+}
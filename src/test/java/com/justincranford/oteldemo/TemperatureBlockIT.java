@@ -0,0 +1,95 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.service.TemperatureBlockService;
+import com.justincranford.oteldemo.service.TemperatureIngestService;
+import com.justincranford.oteldemo.service.TemperatureService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static com.justincranford.oteldemo.util.HttpUtil.doHttpGet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class TemperatureBlockIT extends AbstractIT {
+    private static final OffsetDateTime BLOCK_START = OffsetDateTime.of(2001, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC); // far from other tests' readings
+    private static final int READINGS = 3600;
+
+    @Autowired
+    private TemperatureIngestService temperatureIngestService;
+
+    @Autowired
+    private TemperatureBlockService temperatureBlockService;
+
+    @Autowired
+    private TemperatureService temperatureService;
+
+    @Test
+    void testSealAndExport() throws Exception {
+        assertThat(this.temperatureIngestService.ingestBinary(readings(0, READINGS))).isEqualTo(READINGS); // one reading per second for one hour
+        assertThat(this.temperatureBlockService.sealBlock(BLOCK_START, BLOCK_START.plusHours(1))).isEqualTo(READINGS);
+
+        assertThat(this.temperatureIngestService.ingestBinary(readings(READINGS, 1))).isEqualTo(1L); // late reading, merged into the sealed block
+        assertThat(this.temperatureBlockService.sealBlock(BLOCK_START, BLOCK_START.plusHours(1))).isEqualTo(1L);
+
+        final String csv = doHttpGet(super.baseUrl() + "/temperatures/export?from=" + BLOCK_START + "&to=" + BLOCK_START.plusHours(1) + "&format=csv");
+        assertThat(csv.lines().skip(1)).hasSize(READINGS + 1).allMatch(line -> line.startsWith(",2001-01-01T00:")); // sealed readings have no ID
+        assertThat(csv.lines().skip(1).findFirst()).hasValue(",2001-01-01T00:00Z,20.0");
+    }
+
+    @Test
+    void testPageThroughSealedAndRawReadings() throws Exception {
+        final OffsetDateTime blockStart = BLOCK_START.plusHours(1);
+        // sealed: one per second for 100 seconds, plus 2 more at 00:10, so ordinals tell them apart
+        final long[] sealedMillis = LongStream.concat(LongStream.range(0, 100).map(i -> i * 1000L), LongStream.of(10_000L, 10_000L)).toArray();
+        assertThat(this.temperatureIngestService.ingestBinary(readings(blockStart, 0, sealedMillis))).isEqualTo(sealedMillis.length);
+        assertThat(this.temperatureBlockService.sealBlock(blockStart, blockStart.plusHours(1))).isEqualTo(sealedMillis.length);
+        // raw late readings, not sealed yet; one has the same timestamp as the sealed readings at 00:10
+        final long[] rawMillis = {10_000L, 50_500L, 200_000L};
+        assertThat(this.temperatureIngestService.ingestBinary(readings(blockStart, sealedMillis.length, rawMillis))).isEqualTo(rawMillis.length);
+
+        final List<TemperatureService.Reading> all = new ArrayList<>();
+        TemperatureService.Cursor cursor = null;
+        do {
+            final TemperatureService.Page page = this.temperatureService.findTemperatures(blockStart, blockStart.plusHours(1), cursor, 7); // pages end at all kinds of positions
+            all.addAll(page.items());
+            cursor = (page.nextCursor() == null) ? null : TemperatureService.Cursor.decode(page.nextCursor());
+        } while (cursor != null);
+
+        assertThat(all).hasSize(sealedMillis.length + rawMillis.length);
+        assertThat(all).extracting(TemperatureService.Reading::celcius).containsExactlyInAnyOrderElementsOf(
+            IntStream.range(0, sealedMillis.length + rawMillis.length).mapToObj(i -> (float) i).toList()); // every reading exactly once
+        assertThat(all).extracting(reading -> reading.timestamp().toInstant()).isSorted();
+        assertThat(all).filteredOn(reading -> reading.id() == null).hasSize(sealedMillis.length);
+        assertThat(all).filteredOn(reading -> reading.timestamp().toInstant().equals(blockStart.plusSeconds(10).toInstant()))
+            .extracting(reading -> reading.id() == null).containsExactly(true, true, true, false); // sealed before raw
+    }
+
+    // epoch millis + float, big-endian; one per second, except the late reading at 00:00:00.500, which sorts between existing readings
+    private static ByteArrayInputStream readings(final int from, final int count) {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(count * TemperatureIngestService.BINARY_RECORD_BYTES);
+        for (int i = from; i < from + count; i++) {
+            final long epochMillis = BLOCK_START.toInstant().toEpochMilli() + ((i < READINGS) ? i * 1000L : 500L);
+            byteBuffer.putLong(epochMillis).putFloat(20F + (i % 10) / 4F);
+        }
+        return new ByteArrayInputStream(byteBuffer.array());
+    }
+
+    // epoch millis + float, big-endian; celcius is the reading's index, starting at firstIndex
+    private static ByteArrayInputStream readings(final OffsetDateTime blockStart, final int firstIndex, final long... offsetMillis) {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(offsetMillis.length * TemperatureIngestService.BINARY_RECORD_BYTES);
+        for (int i = 0; i < offsetMillis.length; i++) {
+            byteBuffer.putLong(blockStart.toInstant().toEpochMilli() + offsetMillis[i]).putFloat(firstIndex + i);
+        }
+        return new ByteArrayInputStream(byteBuffer.array());
+    }
+}
@@ -0,0 +1,166 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.justincranford.oteldemo.util.HttpUtil.doHttpGet;
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class TemperatureControllerIT extends AbstractIT {
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":\"([A-Za-z0-9_-]+)\"");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TemperatureConfigurationProperties temperatureConfigurationProperties;
+
+    @Test
+    void testSummaryApi() {
+        doHttpGet(super.baseUrl() + "/hello/telemetry"); // saves 14 temperatures, and updates rollups
+        final OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        final OffsetDateTime from = to.minusDays(3);
+        final String responseBody = doHttpGet(super.baseUrl() + "/temperatures/summary?from=" + from + "&to=" + to);
+        log.info("Temperature summary API response:\n{}", responseBody);
+        assertThat(responseBody).contains("\"count\":").doesNotContain("\"count\":0,");
+    }
+
+    @Test
+    void testKeysetPaginationApi() {
+        doHttpGet(super.baseUrl() + "/hello/telemetry"); // saves 14 temperatures
+        final OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(1);
+        final OffsetDateTime from = to.minusDays(1);
+        final String firstPage = doHttpGet(super.baseUrl() + "/temperatures?from=" + from + "&to=" + to + "&limit=5");
+        log.info("Temperatures API first page:\n{}", firstPage);
+        final Matcher matcher = NEXT_CURSOR.matcher(firstPage);
+        assertThat(matcher.find()).isTrue();
+        final String secondPage = doHttpGet(super.baseUrl() + "/temperatures?from=" + from + "&to=" + to + "&limit=5&cursor=" + matcher.group(1));
+        log.info("Temperatures API second page:\n{}", secondPage);
+        assertThat(secondPage).contains("\"items\":[{");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs={Long.MIN_VALUE, Long.MAX_VALUE, 0L}) // epoch micros of a tampered, well-formed 24 byte cursor
+    void testKeysetPaginationApiRejectsTamperedCursor(final long epochMicros) {
+        final OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(1);
+        final OffsetDateTime from = to.minusDays(1);
+        final String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(ByteBuffer.allocate(24).putLong(epochMicros).putLong(1L).putLong(1L).array());
+        assertThatThrownBy(() -> doHttpGet(super.baseUrl() + "/temperatures?from=" + from + "&to=" + to + "&cursor=" + cursor))
+            .isInstanceOf(HttpClientErrorException.BadRequest.class);
+    }
+
+    @Test
+    void testExportApi() {
+        doHttpGet(super.baseUrl() + "/hello/telemetry"); // saves 14 temperatures
+        final OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(1);
+        final OffsetDateTime from = to.minusDays(1);
+        final String csv = doHttpGet(super.baseUrl() + "/temperatures/export?from=" + from + "&to=" + to + "&format=csv");
+        assertThat(csv).startsWith("id,timestamp,celcius\n");
+        assertThat(csv.lines().count()).isGreaterThan(14L);
+        final String ndjson = doHttpGet(super.baseUrl() + "/temperatures/export?from=" + from + "&to=" + to + "&format=ndjson");
+        assertThat(ndjson.lines()).allMatch(line -> line.startsWith("{\"id\":\""));
+    }
+
+    @Test
+    void testRecentApi() {
+        doHttpGet(super.baseUrl() + "/hello/telemetry"); // saves 14 temperatures, and adds them to the ring buffer after commit
+        final String recent = doHttpGet(super.baseUrl() + "/temperatures/recent?n=5");
+        log.info("Recent temperatures API response:\n{}", recent);
+        assertThat(recent).startsWith("[{\"timestamp\":");
+        final String stats = doHttpGet(super.baseUrl() + "/temperatures/recent/stats?windowSeconds=300");
+        log.info("Recent temperatures stats API response:\n{}", stats);
+        assertThat(stats).contains("\"count\":").doesNotContain("\"count\":0,");
+    }
+
+    @Test
+    void testIngestApi() {
+        final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        final String ndjson = "{\"timestamp\":\"" + now + "\",\"celcius\":21.5}\n{\"timestamp\":" + now.toInstant().toEpochMilli() + ",\"celcius\":-4.25}\n";
+        assertThat(doHttpPost("/temperatures/ingest", MediaType.parseMediaType("application/x-ndjson"), ndjson)).isEqualTo("{\"accepted\":2}");
+
+        final ByteBuffer binary = ByteBuffer.allocate(3 * 12);
+        for (int i = 0; i < 3; i++) {
+            binary.putLong(now.toInstant().toEpochMilli() + i).putFloat(20F + i);
+        }
+        assertThat(doHttpPost("/temperatures/ingest", MediaType.APPLICATION_OCTET_STREAM, binary.array())).isEqualTo("{\"accepted\":3}");
+    }
+
+    @Test
+    void testIngestApiBackfillsHistoricalReadings() {
+        final int readings = (2 * this.temperatureConfigurationProperties.getBatch().getSize()) + 7; // two full chunks, and a partial one
+        final OffsetDateTime start = OffsetDateTime.of(2002, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusMinutes(SECURE_RANDOM.nextInt(1_000_000)); // backfill range no other test uses
+        final StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < readings; i++) {
+            ndjson.append("{\"timestamp\":").append(start.toInstant().toEpochMilli() + i).append(",\"celcius\":").append(i / 4F).append("}\n");
+        }
+        assertThat(doHttpPost("/temperatures/ingest", MediaType.parseMediaType("application/x-ndjson"), ndjson.toString())).isEqualTo("{\"accepted\":" + readings + "}");
+
+        final List<Float> persisted = this.jdbcTemplate.queryForList("SELECT celcius FROM temperatures WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp", Float.class, start, start.plusSeconds(readings));
+        assertThat(persisted).hasSize(readings);
+        for (int i = 0; i < readings; i++) {
+            assertThat(persisted.get(i)).isEqualTo(i / 4F); // exact in binary floating point
+        }
+    }
+
+    @Test
+    void testIngestApiRollsBackFlushedChunksOnInvalidBody() {
+        final int goodReadings = this.temperatureConfigurationProperties.getBatch().getSize() + 10; // first chunk is written before the bad line
+        final OffsetDateTime start = OffsetDateTime.of(2001, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusMinutes(SECURE_RANDOM.nextInt(1_000_000)); // backfill range no other test uses
+        final StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < goodReadings; i++) {
+            ndjson.append("{\"timestamp\":").append(start.toInstant().toEpochMilli() + i).append(",\"celcius\":21.5}\n");
+        }
+        ndjson.append("{\"timestamp\":"); // truncated, i.e. checked JsonProcessingException instead of IllegalArgumentException
+        assertThatThrownBy(() -> doHttpPost("/temperatures/ingest", MediaType.parseMediaType("application/x-ndjson"), ndjson.toString()))
+            .isInstanceOf(HttpClientErrorException.BadRequest.class);
+        final Long persisted = this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM temperatures WHERE timestamp >= ? AND timestamp < ?", Long.class, start, start.plusSeconds(goodReadings));
+        assertThat(persisted).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={
+        "{\"timestamp\":9223372036854775807,\"celcius\":21.5}", // epoch millis overflow epoch nanos
+        "{\"timestamp\":-9223372036855,\"celcius\":21.5}", // epoch millis underflow epoch nanos
+        "{\"timestamp\":\"+999999999-12-31T23:59:59Z\",\"celcius\":21.5}",
+        "{\"timestamp\":\"2025-01-01T00:00:00Z\"}" // missing celcius
+    })
+    void testIngestApiRejectsInvalidReading(final String ndjson) {
+        assertThatThrownBy(() -> doHttpPost("/temperatures/ingest", MediaType.parseMediaType("application/x-ndjson"), ndjson))
+            .isInstanceOf(HttpClientErrorException.BadRequest.class);
+    }
+
+    @Test
+    void testIngestApiRejectsBinaryTimestampOverflow() {
+        final ByteBuffer binary = ByteBuffer.allocate(12).putLong(Long.MIN_VALUE).putFloat(20F);
+        assertThatThrownBy(() -> doHttpPost("/temperatures/ingest", MediaType.APPLICATION_OCTET_STREAM, binary.array()))
+            .isInstanceOf(HttpClientErrorException.BadRequest.class);
+    }
+
+    private String doHttpPost(final String path, final MediaType contentType, final Object body) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        return new RestTemplateBuilder().build().postForObject(super.baseUrl() + path, new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.service.TemperatureService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties={"otel.demo.temperature.group-commit.enabled=true", "otel.demo.temperature.group-commit.window=50ms"})
+@Slf4j
+class TemperatureGroupCommitIT extends AbstractIT {
+    private static final int CALLERS = 32;
+
+    @Autowired
+    private TemperatureService temperatureService;
+
+    @Test
+    void testConcurrentCallersShareCommits() throws Exception {
+        final double committedBefore = super.meterRegistry().get("temperature.group_commit.readings").tag("result", "committed").counter().count();
+        final long batchesBefore = super.meterRegistry().get("temperature.group_commit.batch.size").summary().count();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(CALLERS);
+            for (int i = 0; i < CALLERS; i++) {
+                final float celcius = i;
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    this.temperatureService.saveOneTemperature(celcius); // returns after commit
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        final long batches = super.meterRegistry().get("temperature.group_commit.batch.size").summary().count() - batchesBefore;
+        assertThat(super.meterRegistry().get("temperature.group_commit.readings").tag("result", "committed").counter().count()).isEqualTo(committedBefore + CALLERS);
+        assertThat(batches).isBetween(1L, CALLERS - 1L);
+        log.info("{} callers, {} commits", CALLERS, batches);
+    }
+
+    @Test
+    void testInterruptedLeaderCommitsAndKeepsInterruptedStatus() {
+        final double committedBefore = super.meterRegistry().get("temperature.group_commit.readings").tag("result", "committed").counter().count();
+
+        Thread.currentThread().interrupt(); // the only caller, so it leads its own commit
+        this.temperatureService.saveOneTemperature(21.5F);
+
+        assertThat(Thread.interrupted()).isTrue(); // restored, and cleared for the next test
+        assertThat(super.meterRegistry().get("temperature.group_commit.readings").tag("result", "committed").counter().count()).isEqualTo(committedBefore + 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against H2; against PostgreSQL (with reWriteBatchedInserts=true) only if ContainerManager.USE_POSTGRESQL is flipped to true locally
+@Slf4j
+class TemperatureInsertAllIT extends AbstractIT {
+    private static final String SELECT_SQL = "SELECT id, version, timestamp, celcius FROM temperatures WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp";
+    private static final int ROWS = 1_003; // not a multiple of the batch size, so the last batch is partial
+    private static final int BATCH_SIZE = 100;
+
+    private record Row(UUID id, int version, OffsetDateTime timestamp, float celcius) {
+    }
+
+    @Autowired
+    private TemperatureRepository temperatureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @ParameterizedTest
+    @ValueSource(strings={"insertAll", "copyAll"})
+    void testEveryRowIsPersistedWithItsValues(final String method) {
+        if (this.datasourceUrl.startsWith("jdbc:postgresql:")) {
+            assertThat(this.datasourceUrl).contains("reWriteBatchedInserts=true"); // the batched path under test
+        }
+        // a random historical hour, and a distinct microsecond timestamp per reading, so rows can be matched to readings by timestamp
+        final OffsetDateTime from = OffsetDateTime.of(1990, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusHours(SECURE_RANDOM.nextInt(24 * 3650));
+        final List<Temperature> temperatures = IntStream.range(0, ROWS).mapToObj(i -> Temperature.builder()
+            .timestamp(from.plusNanos(i * 1_000_000L + SECURE_RANDOM.nextInt(1_000) * 1_000L))
+            .celcius(Math.round((SECURE_RANDOM.nextFloat() * 60F - 20F) * 100F) / 100F)
+            .build()).toList();
+
+        final Number inserted = this.transactionTemplate.execute(status -> method.equals("insertAll")
+            ? this.temperatureRepository.insertAll(temperatures, BATCH_SIZE)
+            : this.temperatureRepository.copyAll(temperatures, BATCH_SIZE));
+        assertThat(inserted).isNotNull();
+        assertThat(inserted.longValue()).isEqualTo(ROWS);
+
+        final List<Row> rows = this.jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) -> new Row(
+            resultSet.getObject("id", UUID.class),
+            resultSet.getInt("version"),
+            resultSet.getObject("timestamp", OffsetDateTime.class),
+            resultSet.getFloat("celcius")
+        ), from, from.plusHours(1));
+        log.info("{} on {}: {} rows, first {}, last {}", method, this.datasourceUrl, rows.size(), rows.get(0), rows.get(rows.size() - 1));
+
+        assertThat(rows).hasSize(ROWS);
+        assertThat(rows).zipSatisfy(temperatures, (row, temperature) -> {
+            assertThat(row.timestamp().toInstant()).isEqualTo(temperature.timestamp().toInstant());
+            assertThat(row.celcius()).isEqualTo(temperature.celcius());
+            assertThat(row.version()).isZero();
+        });
+        assertThat(rows.stream().map(Row::id).distinct()).hasSize(ROWS);
+    }
+}
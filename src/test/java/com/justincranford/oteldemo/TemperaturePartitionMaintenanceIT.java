@@ -0,0 +1,146 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.repository.TemperaturePartitionRepository;
+import com.justincranford.oteldemo.task.TemperaturePartitionMaintenanceTask;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DatabaseDriver;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Partition DDL needs PostgreSQL, so these tests record the DDL calls instead of running them
+@Slf4j
+class TemperaturePartitionMaintenanceIT extends AbstractIT {
+    @Test
+    void testH2KeepsPlainTable() {
+        final RecordingPartitionRepository repository = new RecordingPartitionRepository(Optional.of("r"));
+        final TemperaturePartitionMaintenanceTask task = new TemperaturePartitionMaintenanceTask(DatabaseDriver.H2, repository, new TemperatureConfigurationProperties());
+        task.postConstruct();
+        task.maintainPartitions();
+        assertThat(repository.calls).isEmpty();
+    }
+
+    @Test
+    void testDefersUntilTableExists() {
+        final RecordingPartitionRepository repository = new RecordingPartitionRepository(Optional.empty()); // e.g. ddl-auto=none, schema not created yet
+        final TemperaturePartitionMaintenanceTask task = new TemperaturePartitionMaintenanceTask(DatabaseDriver.POSTGRESQL, repository, new TemperatureConfigurationProperties());
+        task.postConstruct();
+        assertThat(repository.calls).isEmpty();
+
+        repository.tableKind = Optional.of("r"); // created later, as a plain table
+        task.maintainPartitions();
+        assertThat(repository.calls).first().isEqualTo("replace");
+        assertThat(repository.calls).contains("create " + partitionName(today()));
+    }
+
+    @Test
+    void testKeepsPlainTableWithRows() {
+        final RecordingPartitionRepository repository = new RecordingPartitionRepository(Optional.of("r"));
+        repository.empty = false; // e.g. written to by the recorder task before the first maintenance run
+        final TemperaturePartitionMaintenanceTask task = new TemperaturePartitionMaintenanceTask(DatabaseDriver.POSTGRESQL, repository, new TemperatureConfigurationProperties());
+        task.maintainPartitions();
+        assertThat(repository.calls).isEmpty();
+        assertThat(repository.tableKind).contains("r");
+    }
+
+    @Test
+    void testCreatesFuturePartitionsAndAppliesRetention() {
+        final TemperatureConfigurationProperties properties = new TemperatureConfigurationProperties();
+        final TemperatureConfigurationProperties.Partitioning partitioning = properties.getPartitioning();
+        final RecordingPartitionRepository repository = new RecordingPartitionRepository(Optional.of("p"));
+        final String expired = partitionName(today().minus(partitioning.getRetention()).minusDays(1));
+        final String retained = partitionName(today().minusDays(1));
+        repository.partitionNames.addAll(List.of("temperatures_default", expired, retained));
+
+        new TemperaturePartitionMaintenanceTask(DatabaseDriver.POSTGRESQL, repository, properties).maintainPartitions();
+
+        for (int i = 0; i <= partitioning.getPremake(); i++) {
+            assertThat(repository.calls).contains("create " + partitionName(today().plusDays(i)));
+        }
+        assertThat(repository.calls).contains("detach " + expired, "drop " + expired);
+        assertThat(repository.calls).doesNotContain("detach " + retained, "detach temperatures_default", "replace");
+        assertThat(repository.partitionNames).contains(retained, "temperatures_default").doesNotContain(expired);
+    }
+
+    @Test
+    void testDetachRetentionKeepsTable() {
+        final TemperatureConfigurationProperties properties = new TemperatureConfigurationProperties();
+        properties.getPartitioning().setRetentionAction(TemperatureConfigurationProperties.RetentionAction.DETACH);
+        final RecordingPartitionRepository repository = new RecordingPartitionRepository(Optional.of("p"));
+        final String expired = partitionName(today().minus(properties.getPartitioning().getRetention()).minusDays(1));
+        repository.partitionNames.add(expired);
+
+        new TemperaturePartitionMaintenanceTask(DatabaseDriver.POSTGRESQL, repository, properties).maintainPartitions();
+
+        assertThat(repository.calls).contains("detach " + expired).doesNotContain("drop " + expired);
+    }
+
+    private static OffsetDateTime today() {
+        return LocalDate.now(ZoneOffset.UTC).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private static String partitionName(final OffsetDateTime start) {
+        return "temperatures_p" + DateTimeFormatter.BASIC_ISO_DATE.format(start.toLocalDate());
+    }
+
+    private static final class RecordingPartitionRepository extends TemperaturePartitionRepository {
+        private final List<String> calls = new ArrayList<>();
+        private final List<String> partitionNames = new ArrayList<>();
+        private Optional<String> tableKind;
+        private boolean empty = true;
+
+        private RecordingPartitionRepository(final Optional<String> tableKind) {
+            super(null, null); // no JdbcTemplate or TransactionTemplate, every query is overridden
+            this.tableKind = tableKind;
+        }
+
+        @Override
+        public Optional<String> findTableKind() {
+            return this.tableKind;
+        }
+
+        @Override
+        public boolean replaceEmptyWithPartitionedTable() {
+            if (!this.empty) {
+                return false;
+            }
+            this.calls.add("replace");
+            this.tableKind = Optional.of("p");
+            this.partitionNames.add("temperatures_default");
+            return true;
+        }
+
+        @Override
+        public List<String> findPartitionNames() {
+            return List.copyOf(this.partitionNames);
+        }
+
+        @Override
+        public void createPartition(final String partitionName, final OffsetDateTime from, final OffsetDateTime to) {
+            this.calls.add("create " + partitionName);
+            if (!this.partitionNames.contains(partitionName)) {
+                this.partitionNames.add(partitionName);
+            }
+        }
+
+        @Override
+        public void detachPartition(final String partitionName) {
+            this.calls.add("detach " + partitionName);
+            this.partitionNames.remove(partitionName);
+        }
+
+        @Override
+        public void dropTable(final String tableName) {
+            this.calls.add("drop " + tableName);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureChunk;
+import com.justincranford.oteldemo.repository.TemperatureRollupRepository;
+import com.justincranford.oteldemo.repository.TemperatureRollupRepository.Granularity;
+import com.justincranford.oteldemo.service.TemperatureService;
+import com.justincranford.oteldemo.service.TemperatureWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Slf4j
+class TemperatureRollupIT extends AbstractIT {
+    private static final String SELECT_RAW_SQL = "SELECT timestamp, celcius FROM temperatures WHERE timestamp >= ? AND timestamp < ?";
+    private static final String SELECT_ROLLUPS_SQL = "SELECT bucket_start, reading_count, min_celcius, max_celcius, sum_celcius FROM %s WHERE bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    @Autowired
+    private TemperatureWriter temperatureWriter;
+
+    @Autowired
+    private TemperatureService temperatureService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testRollupsMatchRawRows() {
+        // a random historical day, so rollups aren't shared with other tests or previous runs against the same database
+        final OffsetDateTime day = OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusDays(SECURE_RANDOM.nextInt(3650));
+        final OffsetDateTime nextDay = day.plusDays(1);
+
+        // ingest path (writeChunk), because historical readings must not go to the recent readings ring buffer.
+        // Several writes per transaction are merged before commit, and separate transactions add to the same rollup rows
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.temperatureWriter.writeChunk(newChunk(day, 20));
+            this.temperatureWriter.writeChunk(newChunk(day, 30));
+        });
+        this.temperatureWriter.writeChunk(newChunk(day, 40));
+
+        final List<Temperature> raw = this.jdbcTemplate.query(SELECT_RAW_SQL, (resultSet, rowNum) -> Temperature.builder()
+            .timestamp(resultSet.getObject("timestamp", OffsetDateTime.class))
+            .celcius(resultSet.getFloat("celcius"))
+            .build(), day, nextDay);
+        assertThat(raw).hasSize(90);
+
+        for (final Granularity granularity : Granularity.values()) {
+            final Map<OffsetDateTime, TemperatureRollupRepository.Bucket> expected = new TreeMap<>();
+            raw.forEach(temperature -> expected.merge(granularity.floor(temperature.timestamp()),
+                new TemperatureRollupRepository.Bucket(granularity, granularity.floor(temperature.timestamp()), 1L, temperature.celcius(), temperature.celcius(), temperature.celcius()),
+                TemperatureRollupRepository.Bucket::merge));
+            final List<TemperatureRollupRepository.Bucket> actual = this.jdbcTemplate.query(SELECT_ROLLUPS_SQL.formatted(granularity.tableName()), (resultSet, rowNum) -> new TemperatureRollupRepository.Bucket(
+                granularity,
+                resultSet.getObject("bucket_start", OffsetDateTime.class),
+                resultSet.getLong("reading_count"),
+                resultSet.getFloat("min_celcius"),
+                resultSet.getFloat("max_celcius"),
+                resultSet.getDouble("sum_celcius")
+            ), day, nextDay);
+            log.info("{} rollups: {}", granularity, actual);
+
+            assertThat(actual).hasSameSizeAs(expected.values());
+            assertThat(actual).zipSatisfy(List.copyOf(expected.values()), (actualBucket, expectedBucket) -> {
+                assertThat(actualBucket.bucketStart().toInstant()).isEqualTo(expectedBucket.bucketStart().toInstant());
+                assertThat(actualBucket.count()).isEqualTo(expectedBucket.count());
+                assertThat(actualBucket.min()).isEqualTo(expectedBucket.min());
+                assertThat(actualBucket.max()).isEqualTo(expectedBucket.max());
+                assertThat(actualBucket.sum()).isCloseTo(expectedBucket.sum(), within(0.01));
+            });
+        }
+
+        final TemperatureService.Summary summary = this.temperatureService.summarizeTemperatures(day, nextDay);
+        assertThat(summary.count()).isEqualTo(90L);
+        assertThat(summary.bucketsRead()).isEqualTo(1); // one day rollup
+        assertThat(summary.min()).isEqualTo(raw.stream().map(Temperature::celcius).min(Float::compare).orElseThrow());
+        assertThat(summary.max()).isEqualTo(raw.stream().map(Temperature::celcius).max(Float::compare).orElseThrow());
+    }
+
+    // readings in the first 3 hours of the day, with 2 decimal places
+    private static TemperatureChunk newChunk(final OffsetDateTime day, final int count) {
+        final TemperatureChunk chunk = new TemperatureChunk(count);
+        final long dayEpochNanos = day.toEpochSecond() * 1_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            chunk.add(dayEpochNanos + SECURE_RANDOM.nextInt(3 * 60 * 60) * 1_000_000_000L, Math.round((SECURE_RANDOM.nextFloat() * 60F - 20F) * 100F) / 100F);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,187 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.configuration.TemperatureConfigurationProperties;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.service.TemperatureWriteBehindBuffer;
+import com.justincranford.oteldemo.service.TemperatureWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Buffers are created directly with a recording TemperatureWriter, so each test controls flush timing and overflow
+@Slf4j
+class TemperatureWriteBehindBufferIT extends AbstractIT {
+    @Test
+    void testFlushesOnSize() throws Exception {
+        final RecordingWriter writer = new RecordingWriter(false);
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind(100, 5, Duration.ofHours(1), TemperatureConfigurationProperties.OverflowPolicy.REJECT));
+        try {
+            enqueue(buffer, 0, 5);
+            assertThat(writer.nextBatch()).containsExactly(0F, 1F, 2F, 3F, 4F); // long before flushInterval
+        } finally {
+            buffer.preDestroy();
+        }
+    }
+
+    @Test
+    void testFlushesOnInterval() throws Exception {
+        final RecordingWriter writer = new RecordingWriter(false);
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind(100, 1000, Duration.ofMillis(200), TemperatureConfigurationProperties.OverflowPolicy.REJECT));
+        try {
+            enqueue(buffer, 0, 3);
+            assertThat(writer.nextBatch()).containsExactly(0F, 1F, 2F); // long before flushSize
+        } finally {
+            buffer.preDestroy();
+        }
+    }
+
+    @Test
+    void testBlockPolicyRejectsAfterTimeout() throws Exception {
+        final RecordingWriter writer = new RecordingWriter(true);
+        final TemperatureConfigurationProperties.WriteBehind writeBehind = writeBehind(2, 1, Duration.ofHours(1), TemperatureConfigurationProperties.OverflowPolicy.BLOCK);
+        writeBehind.setBlockTimeout(Duration.ofMillis(100));
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind, meterRegistry);
+        try {
+            fillWhileWriterIsBlocked(buffer, writer);
+            final long startNanos = System.nanoTime();
+            assertThatThrownBy(() -> buffer.enqueue(temperature(3))).isInstanceOf(RejectedExecutionException.class);
+            assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100L)); // waited for capacity first
+            assertThat(readings(meterRegistry, "rejected")).isEqualTo(1.0);
+        } finally {
+            writer.release.countDown();
+            buffer.preDestroy();
+        }
+        assertThat(writer.written()).containsExactly(0F, 1F, 2F);
+    }
+
+    @Test
+    void testDropOldestPolicyKeepsNewest() throws Exception {
+        final RecordingWriter writer = new RecordingWriter(true);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind(2, 1, Duration.ofHours(1), TemperatureConfigurationProperties.OverflowPolicy.DROP_OLDEST), meterRegistry);
+        try {
+            fillWhileWriterIsBlocked(buffer, writer);
+            buffer.enqueue(temperature(3)); // drops 1
+            assertThat(readings(meterRegistry, "dropped")).isEqualTo(1.0);
+        } finally {
+            writer.release.countDown();
+            buffer.preDestroy();
+        }
+        assertThat(writer.written()).containsExactly(0F, 2F, 3F);
+    }
+
+    @Test
+    void testRejectPolicyFailsFast() throws Exception {
+        final RecordingWriter writer = new RecordingWriter(true);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind(2, 1, Duration.ofHours(1), TemperatureConfigurationProperties.OverflowPolicy.REJECT), meterRegistry);
+        try {
+            fillWhileWriterIsBlocked(buffer, writer);
+            assertThatThrownBy(() -> buffer.enqueue(temperature(3))).isInstanceOf(RejectedExecutionException.class);
+            assertThat(readings(meterRegistry, "rejected")).isEqualTo(1.0);
+        } finally {
+            writer.release.countDown();
+            buffer.preDestroy();
+        }
+        assertThat(writer.written()).containsExactly(0F, 1F, 2F);
+    }
+
+    @Test
+    void testShutdownDrainsEverything() {
+        final RecordingWriter writer = new RecordingWriter(false);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final TemperatureWriteBehindBuffer buffer = start(writer, writeBehind(1000, 7, Duration.ofHours(1), TemperatureConfigurationProperties.OverflowPolicy.BLOCK), meterRegistry);
+        enqueue(buffer, 0, 500);
+        buffer.preDestroy(); // flushInterval is far away, so most readings are still queued
+        assertThat(writer.written()).hasSize(500).doesNotHaveDuplicates();
+        assertThat(readings(meterRegistry, "flushed")).isEqualTo(500.0);
+        assertThatThrownBy(() -> buffer.enqueue(temperature(500))).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    // Writer takes reading 0 and blocks in write(), then readings 1 and 2 fill the capacity of 2
+    private static void fillWhileWriterIsBlocked(final TemperatureWriteBehindBuffer buffer, final RecordingWriter writer) throws InterruptedException {
+        buffer.enqueue(temperature(0));
+        assertThat(writer.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        enqueue(buffer, 1, 2);
+    }
+
+    private static void enqueue(final TemperatureWriteBehindBuffer buffer, final int first, final int count) {
+        for (int i = first; i < first + count; i++) {
+            buffer.enqueue(temperature(i));
+        }
+    }
+
+    private static Temperature temperature(final int celcius) {
+        return Temperature.builder().timestamp(OffsetDateTime.now()).celcius((float) celcius).build();
+    }
+
+    private static TemperatureConfigurationProperties.WriteBehind writeBehind(final int capacity, final int flushSize, final Duration flushInterval, final TemperatureConfigurationProperties.OverflowPolicy overflowPolicy) {
+        final TemperatureConfigurationProperties.WriteBehind writeBehind = new TemperatureConfigurationProperties.WriteBehind();
+        writeBehind.setEnabled(true);
+        writeBehind.setCapacity(capacity);
+        writeBehind.setFlushSize(flushSize);
+        writeBehind.setFlushInterval(flushInterval);
+        writeBehind.setOverflowPolicy(overflowPolicy);
+        return writeBehind;
+    }
+
+    private static TemperatureWriteBehindBuffer start(final RecordingWriter writer, final TemperatureConfigurationProperties.WriteBehind writeBehind) {
+        return start(writer, writeBehind, new SimpleMeterRegistry());
+    }
+
+    private static TemperatureWriteBehindBuffer start(final RecordingWriter writer, final TemperatureConfigurationProperties.WriteBehind writeBehind, final SimpleMeterRegistry meterRegistry) {
+        final TemperatureConfigurationProperties properties = new TemperatureConfigurationProperties();
+        properties.setWriteBehind(writeBehind);
+        final TemperatureWriteBehindBuffer buffer = new TemperatureWriteBehindBuffer(writer, meterRegistry, properties);
+        buffer.postConstruct();
+        return buffer;
+    }
+
+    private static double readings(final SimpleMeterRegistry meterRegistry, final String result) {
+        return meterRegistry.get("temperature.write_behind.readings").tag("result", result).counter().count();
+    }
+
+    private static final class RecordingWriter extends TemperatureWriter {
+        private final BlockingQueue<List<Float>> batches = new LinkedBlockingQueue<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private RecordingWriter(final boolean blockFirstWrite) {
+            super(null, null, null, null); // write() is overridden, no DB
+            this.release = new CountDownLatch(blockFirstWrite ? 1 : 0);
+        }
+
+        @Override
+        public void write(final List<Temperature> temperatures) {
+            final List<Float> batch = temperatures.stream().map(Temperature::celcius).toList(); // caller clears its list after this returns
+            this.entered.countDown();
+            try {
+                assertThat(this.release.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+            }
+            this.batches.add(batch);
+        }
+
+        private List<Float> nextBatch() throws InterruptedException {
+            return this.batches.poll(10, TimeUnit.SECONDS);
+        }
+
+        private List<Float> written() {
+            return this.batches.stream().flatMap(List::stream).toList();
+        }
+    }
+}
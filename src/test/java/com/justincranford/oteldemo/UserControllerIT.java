@@ -0,0 +1,47 @@
+package com.justincranford.oteldemo;
+
+import com.justincranford.oteldemo.entity.User;
+import com.justincranford.oteldemo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.justincranford.oteldemo.util.HttpUtil.doHttpGet;
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class UserControllerIT extends AbstractIT {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testSearchApi() {
+        final String unique = UUID.randomUUID().toString().substring(0, 8); // isolates this test from other users
+        this.userRepository.saveAll(List.of(
+            User.builder().name("Zed " + unique + " Smithers").build(),
+            User.builder().name(unique + " Smith").build(),
+            User.builder().name("Somebody Else " + unique).build()
+        ));
+        final String responseBody = doHttpGet(super.baseUrl() + "/users/search?q=" + unique.toUpperCase() + "%20smith&limit=10");
+        log.info("User search API response:\n{}", responseBody);
+        assertThat(responseBody).startsWith("[{\"id\":\"").contains("\"name\":\"" + unique + " Smith\"").doesNotContain("Somebody Else");
+        assertThat(responseBody.indexOf(unique + " Smith\"")).isLessThan(responseBody.indexOf("Zed " + unique)); // prefix match ranks first
+    }
+
+    @Test
+    void testSearchApiFindsNamesShorterThanATrigram() {
+        // two random CJK ideographs; isolates this test from other users
+        final String first = Character.toString(0x4E00 + SECURE_RANDOM.nextInt(20_000));
+        final String second = Character.toString(0x4E00 + SECURE_RANDOM.nextInt(20_000));
+        this.userRepository.save(User.builder().name(first + second).build());
+        for (final String query : List.of(first + second, second)) {
+            final String responseBody = doHttpGet(super.baseUrl() + "/users/search?q=" + query + "&limit=100");
+            log.info("User search API response for {}:\n{}", query, responseBody);
+            assertThat(responseBody).contains("\"name\":\"" + first + second + "\"");
+        }
+    }
+}
@@ -18,6 +18,7 @@ public class Constants {
         "/actuator/mappings",
         "/actuator/loggers",
         "/actuator/threaddump",
-        "/actuator/caches"
+        "/actuator/caches",
+        "/actuator/cardinality"
     );
 }
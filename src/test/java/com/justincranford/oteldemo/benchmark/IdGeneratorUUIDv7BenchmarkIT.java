@@ -0,0 +1,74 @@
+package com.justincranford.oteldemo.benchmark;
+
+import com.justincranford.oteldemo.entity.base.IdGeneratorUUIDv7;
+import com.justincranford.oteldemo.entity.base.UUIDv7Generator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Run with: ./gradlew benchmark
+// No Spring context or DB; compares the striped generator against the previous shared SecureRandom generator
+@Slf4j
+@Tag("benchmark")
+class IdGeneratorUUIDv7BenchmarkIT {
+    private static final int IDS_PER_THREAD = 200_000;
+    private static final int WARM_UP_IDS_PER_THREAD = 20_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 16, 32, 64})
+    void generateUUIDv7(final int threads) throws Exception {
+        run("striped", threads, WARM_UP_IDS_PER_THREAD, IdGeneratorUUIDv7::generateUUIDv7);
+        final double stripedIdsPerSecond = run("striped", threads, IDS_PER_THREAD, IdGeneratorUUIDv7::generateUUIDv7);
+
+        run("reserve", threads, WARM_UP_IDS_PER_THREAD, UUIDv7Generator::generateFromReserve); // per-thread blocks, as used by Hibernate
+        run("reserve", threads, IDS_PER_THREAD, UUIDv7Generator::generateFromReserve);
+
+        run("sharedSecureRandom", threads, WARM_UP_IDS_PER_THREAD, IdGeneratorUUIDv7::generateUUIDv7SharedSecureRandom);
+        final double sharedIdsPerSecond = run("sharedSecureRandom", threads, IDS_PER_THREAD, IdGeneratorUUIDv7::generateUUIDv7SharedSecureRandom);
+
+        log.info("BENCHMARK UUIDv7 threads={} speedup={}", threads, String.format("%.1f", stripedIdsPerSecond / sharedIdsPerSecond));
+    }
+
+    // Each thread also checks its IDs are strictly increasing, as UUIDv7Generator guarantees
+    private static double run(final String generator, final int threads, final int idsPerThread, final Supplier<UUID> supplier) throws Exception {
+        final boolean checkOrder = !"sharedSecureRandom".equals(generator);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executorService.submit(() -> {
+                    start.await();
+                    UUID previous = supplier.get();
+                    for (int i = 1; i < idsPerThread; i++) {
+                        final UUID id = supplier.get();
+                        if (checkOrder && (Long.compareUnsigned(id.getMostSignificantBits(), previous.getMostSignificantBits()) <= 0)) {
+                            throw new AssertionError("Not strictly increasing: " + previous + " then " + id); // cheaper than AssertJ in the timed loop
+                        }
+                        previous = id;
+                    }
+                    return null;
+                });
+            }
+            final long nanosStart = System.nanoTime();
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            final long nanos = System.nanoTime() - nanosStart;
+            final double idsPerSecond = ((double) threads * idsPerThread) * 1_000_000_000D / nanos;
+            log.info("BENCHMARK UUIDv7 generator={} threads={} ids={} millis={} idsPerSecond={}", generator, threads, threads * idsPerThread, nanos / 1_000_000L, String.format("%.0f", idsPerSecond));
+            return idsPerSecond;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
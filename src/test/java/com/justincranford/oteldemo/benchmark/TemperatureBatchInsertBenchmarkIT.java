@@ -0,0 +1,72 @@
+package com.justincranford.oteldemo.benchmark;
+
+import com.justincranford.oteldemo.AbstractIT;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: ./gradlew benchmark
+// H2 vs PostgreSQL is selected by ContainerManager.USE_POSTGRESQL
+@Slf4j
+@Tag("benchmark")
+class TemperatureBatchInsertBenchmarkIT extends AbstractIT {
+    private static final int ROWS = 10_000;
+    private static final int WARM_UP_ROWS = 1_000;
+
+    @Autowired
+    private TemperatureRepository temperatureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, 1_000, 10_000})
+    void jdbcBatchInsert(final int batchSize) {
+        this.transactionTemplate.executeWithoutResult(status -> this.temperatureRepository.insertAll(newTemperatures(WARM_UP_ROWS), batchSize));
+
+        final List<Temperature> temperatures = newTemperatures(ROWS);
+        final long nanosStart = System.nanoTime();
+        final Integer inserted = this.transactionTemplate.execute(status -> this.temperatureRepository.insertAll(temperatures, batchSize));
+        logRowsPerSecond("JDBC insertAll", batchSize, ROWS, System.nanoTime() - nanosStart);
+        assertThat(inserted).isEqualTo(ROWS);
+    }
+
+    @Test
+    void jpaSaveAll() {
+        this.transactionTemplate.executeWithoutResult(status -> this.temperatureRepository.saveAll(newTemperatures(WARM_UP_ROWS)));
+
+        final List<Temperature> temperatures = newTemperatures(ROWS);
+        final long nanosStart = System.nanoTime();
+        this.transactionTemplate.executeWithoutResult(status -> this.temperatureRepository.saveAll(temperatures));
+        logRowsPerSecond("JPA saveAll", -1, ROWS, System.nanoTime() - nanosStart); // batch size is hibernate.jdbc.batch_size
+    }
+
+    private void logRowsPerSecond(final String insertPath, final int batchSize, final int rows, final long nanos) {
+        final double rowsPerSecond = rows * 1_000_000_000D / nanos;
+        log.info("BENCHMARK {} url={} batchSize={} rows={} millis={} rowsPerSecond={}", insertPath, this.datasourceUrl, batchSize, rows, nanos / 1_000_000L, String.format("%.0f", rowsPerSecond));
+    }
+
+    private static List<Temperature> newTemperatures(final int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> Temperature.builder().timestamp(OffsetDateTime.now(ZoneOffset.UTC)).celcius((float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)).build())
+            .toList();
+    }
+}
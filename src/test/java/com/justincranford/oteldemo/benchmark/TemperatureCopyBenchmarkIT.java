@@ -0,0 +1,68 @@
+package com.justincranford.oteldemo.benchmark;
+
+import com.justincranford.oteldemo.AbstractIT;
+import com.justincranford.oteldemo.entity.Temperature;
+import com.justincranford.oteldemo.repository.TemperatureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.justincranford.oteldemo.util.SecureRandomUtil.SECURE_RANDOM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with: ./gradlew benchmark
+// COPY needs PostgreSQL (ContainerManager.USE_POSTGRESQL=true); on H2 both paths are JDBC batch inserts
+@Slf4j
+@Tag("benchmark")
+class TemperatureCopyBenchmarkIT extends AbstractIT {
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private TemperatureRepository temperatureRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void copyVersusJdbcBatchInsert(final int rows) {
+        this.transactionTemplate.executeWithoutResult(status -> this.temperatureRepository.copyAll(newTemperatures(BATCH_SIZE), BATCH_SIZE)); // warm up
+        this.transactionTemplate.executeWithoutResult(status -> this.temperatureRepository.insertAll(newTemperatures(BATCH_SIZE), BATCH_SIZE)); // warm up
+
+        final List<Temperature> temperatures = newTemperatures(rows);
+
+        final long nanosStartCopy = System.nanoTime();
+        final Long copied = this.transactionTemplate.execute(status -> this.temperatureRepository.copyAll(temperatures, BATCH_SIZE));
+        logRowsPerSecond("COPY copyAll", rows, System.nanoTime() - nanosStartCopy);
+        assertThat(copied).isEqualTo(rows);
+
+        final long nanosStartInsert = System.nanoTime();
+        final Integer inserted = this.transactionTemplate.execute(status -> this.temperatureRepository.insertAll(temperatures, BATCH_SIZE));
+        logRowsPerSecond("JDBC insertAll", rows, System.nanoTime() - nanosStartInsert);
+        assertThat(inserted).isEqualTo(rows);
+    }
+
+    private void logRowsPerSecond(final String insertPath, final int rows, final long nanos) {
+        final double rowsPerSecond = rows * 1_000_000_000D / nanos;
+        log.info("BENCHMARK {} url={} batchSize={} rows={} millis={} rowsPerSecond={}", insertPath, this.datasourceUrl, BATCH_SIZE, rows, nanos / 1_000_000L, String.format("%.0f", rowsPerSecond));
+    }
+
+    private static List<Temperature> newTemperatures(final int count) {
+        final OffsetDateTime start = OffsetDateTime.now(ZoneOffset.UTC).minusYears(1); // historical backfill
+        return IntStream.range(0, count)
+            .mapToObj(i -> Temperature.builder().timestamp(start.plusSeconds(i)).celcius((float) SECURE_RANDOM.nextDouble(-273.15F, 275.13F)).build())
+            .toList();
+    }
+}
@@ -150,7 +150,7 @@ public class ContainerManager {
         if (USE_POSTGRESQL) {
             final Integer postgresqlPort = CONTAINER_POSTGRESQL.get().getMappedPort(5432);
             otelContribDynamicProperties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
-            otelContribDynamicProperties.put("spring.datasource.url", "jdbc:postgresql://localhost:" + postgresqlPort + "/postgresqlDatabase");
+            otelContribDynamicProperties.put("spring.datasource.url", "jdbc:postgresql://localhost:" + postgresqlPort + "/postgresqlDatabase?reWriteBatchedInserts=true");
             otelContribDynamicProperties.put("spring.datasource.username", "postgresqlUsername");
             otelContribDynamicProperties.put("spring.datasource.password", "postgresqlPassword");
             otelContribDynamicProperties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");